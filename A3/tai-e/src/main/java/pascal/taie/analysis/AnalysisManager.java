@@ -0,0 +1,320 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.cache.ResultCache;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and runs the analyses in the analysis plan.
+ * <p>
+ * Consecutive method analyses in the plan are scheduled together:
+ * for each method in scope, they are run one after another (in plan
+ * order, which already respects the requirements declared by the
+ * analyses), and different methods are analyzed concurrently on a
+ * bounded {@link ForkJoinPool}. Hence, the results of a method are
+ * only produced and stored by a single task, and each {@link IR}
+ * (as a {@link pascal.taie.util.ResultHolder}) is never accessed
+ * by multiple threads at the same time.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    /**
+     * Maximum number of threads used to run method analyses.
+     */
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of methods below which a scheduling task
+     * stops splitting and analyzes the methods itself.
+     */
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    public void execute(List<AnalysisConfig> plan) {
+        ResultCache.setPlan(plan, resolveRequires(plan));
+        int i = 0;
+        while (i < plan.size()) {
+            List<AnalysisConfig> methodConfigs = new ArrayList<>();
+            while (i < plan.size() && isMethodAnalysis(plan.get(i))) {
+                methodConfigs.add(plan.get(i++));
+            }
+            if (!methodConfigs.isEmpty()) {
+                String ids = methodConfigs.stream()
+                        .map(AnalysisConfig::getId)
+                        .collect(Collectors.joining(","));
+                Timer.runAndCount(() -> runMethodAnalyses(methodConfigs), ids);
+            } else {
+                AnalysisConfig config = plan.get(i++);
+                Timer.runAndCount(() -> runAnalysis(config), config.getId());
+            }
+        }
+    }
+
+    /**
+     * @return the IDs of the analyses required by each analysis in the plan,
+     * whose conditions (e.g., {@code pta(algorithm=pta)}) are satisfied
+     * by the options of the analysis.
+     */
+    private static Map<String, List<String>> resolveRequires(List<AnalysisConfig> plan) {
+        Map<String, List<String>> requires = new HashMap<>();
+        for (AnalysisConfig config : plan) {
+            // the requires are not exposed by AnalysisConfig,
+            // but they are serialized as its JSON property
+            JsonNode node = MAPPER.valueToTree(config).get("requires");
+            List<String> ids = new ArrayList<>();
+            if (node != null) {
+                for (JsonNode require : node) {
+                    String s = require.asText();
+                    int i = s.indexOf('(');
+                    if (i == -1) {
+                        ids.add(s);
+                    } else if (satisfyConditions(s.substring(i + 1, s.length() - 1),
+                            config.getOptions())) {
+                        ids.add(s.substring(0, i));
+                    }
+                }
+            }
+            requires.put(config.getId(), ids);
+        }
+        return requires;
+    }
+
+    /**
+     * @param conditions conditions of the form {@code a=x&b=y|z}, i.e.,
+     *                   option a is x, and option b is y or z.
+     */
+    private static boolean satisfyConditions(String conditions, AnalysisOptions options) {
+        for (String condition : conditions.split("&")) {
+            String[] splits = condition.split("=");
+            String value = Objects.toString(options.get(splits[0]));
+            if (!Arrays.asList(splits[1].split("\\|")).contains(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isMethodAnalysis(AnalysisConfig config) {
+        return MethodAnalysis.class.isAssignableFrom(getAnalysisClass(config));
+    }
+
+    private static Class<?> getAnalysisClass(AnalysisConfig config) {
+        try {
+            return Class.forName(config.getAnalysisClass());
+        } catch (ClassNotFoundException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private static Analysis newAnalysis(AnalysisConfig config) {
+        try {
+            Object analysis = getAnalysisClass(config)
+                    .getConstructor(AnalysisConfig.class)
+                    .newInstance(config);
+            if (analysis instanceof Analysis) {
+                return (Analysis) analysis;
+            }
+            throw new AnalysisException(analysis.getClass() + " is not an analysis");
+        } catch (NoSuchMethodException | InstantiationException |
+                 IllegalAccessException | InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        Analysis analysis = newAnalysis(config);
+        if (analysis instanceof ProgramAnalysis) {
+            runProgramAnalysis((ProgramAnalysis) analysis);
+        } else if (analysis instanceof ClassAnalysis) {
+            runClassAnalysis((ClassAnalysis) analysis);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis");
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        getClassScope().parallelStream().forEach(c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get().getClassHierarchy()
+                        .applicationClasses()
+                        .toList();
+                case "all" -> World.get().getClassHierarchy()
+                        .allClasses()
+                        .toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    /**
+     * Runs the given method analyses on all methods in scope.
+     * The analyses of a method are run sequentially in the given order,
+     * while different methods are analyzed in parallel.
+     */
+    private void runMethodAnalyses(List<AnalysisConfig> configs) {
+        // analyses are created in plan order, before any of them runs
+        List<MethodAnalysis> analyses = configs.stream()
+                .map(config -> (MethodAnalysis) newAnalysis(config))
+                .toList();
+        List<JMethod> methods = getMethodScope();
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new MethodTask(analyses, methods, 0, methods.size()));
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("{} methods analyzed by [{}] in {}s with {} threads" +
+                        " ({} methods/s)",
+                methods.size(),
+                configs.stream()
+                        .map(AnalysisConfig::getId)
+                        .collect(Collectors.joining(", ")),
+                String.format("%.2f", seconds),
+                PARALLELISM,
+                String.format("%.1f", seconds > 0 ?
+                        methods.size() / seconds : methods.size()));
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * Fork-join task which runs method analyses on a range of methods.
+     * The tasks are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static class MethodTask extends RecursiveAction {
+
+        private final List<MethodAnalysis> analyses;
+
+        private final List<JMethod> methods;
+
+        private final int from;
+
+        private final int to;
+
+        private MethodTask(List<MethodAnalysis> analyses,
+                           List<JMethod> methods, int from, int to) {
+            this.analyses = analyses;
+            this.methods = methods;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; ++i) {
+                    analyze(methods.get(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MethodTask(analyses, methods, from, mid),
+                        new MethodTask(analyses, methods, mid, to));
+            }
+        }
+
+        private void analyze(JMethod method) {
+            IR ir = method.getIR();
+            for (MethodAnalysis analysis : analyses) {
+                Object result = analysis.analyze(ir);
+                if (result != null) {
+                    ir.storeResult(analysis.getId(), result);
+                }
+            }
+        }
+    }
+}
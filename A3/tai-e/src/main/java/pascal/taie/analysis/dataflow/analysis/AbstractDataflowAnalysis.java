@@ -23,13 +23,22 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.cache.ResultCache;
+import pascal.taie.analysis.dataflow.cache.ResultCodec;
+import pascal.taie.analysis.dataflow.fact.CompactDataflowResult;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.BlockSolver;
 import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.BlockCFGBuilder;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.function.Supplier;
 
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
@@ -37,15 +46,71 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     private final Solver<Node, Fact> solver;
 
+    /**
+     * On-disk cache of results, or null if the cache is not enabled.
+     */
+    private final ResultCache cache;
+
+    /**
+     * Whether results are compacted by {@link CompactDataflowResult}.
+     */
+    private final boolean compact;
+
+    /**
+     * Whether the analysis is solved on {@link BlockCFG}.
+     */
+    private final boolean blockCFG;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
         solver = Solver.makeSolver(this);
+        cache = ResultCache.get(getOptions());
+        compact = getOptions().getBooleanOrDefault("compact", false);
+        blockCFG = getOptions().getBooleanOrDefault("block-cfg", false);
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
-        return solver.solve(cfg);
+        boolean onBlocks = blockCFG && cfg.getEntry() instanceof Stmt;
+        Supplier<DataflowResult<Node, Fact>> solve = onBlocks ?
+                () -> solveOnBlocks(ir, cfg) : () -> solver.solve(cfg);
+        ResultCodec<DataflowResult<Node, Fact>> codec = getResultCodec();
+        DataflowResult<Node, Fact> result;
+        if (cache != null && codec != null) {
+            result = cache.computeIfAbsent(this, ir, codec, solve);
+        } else {
+            result = solve.get();
+        }
+        if (compact && !onBlocks && cfg.getEntry() instanceof Stmt) {
+            // keep only facts at block boundaries for retained results
+            return new CompactDataflowResult<>(this, cfg, result);
+        }
+        return result;
+    }
+
+    /**
+     * Solves this analysis on the basic-block CFG of given IR, which is
+     * built from given statement-level CFG if it has not been built.
+     */
+    @SuppressWarnings("unchecked")
+    private DataflowResult<Node, Fact> solveOnBlocks(IR ir, CFG<Node> cfg) {
+        BlockCFG bcfg = ir.getResult(BlockCFGBuilder.ID,
+                () -> BlockCFGBuilder.build((CFG<Stmt>) cfg));
+        return (DataflowResult<Node, Fact>) new BlockSolver<>(
+                (DataflowAnalysis<Stmt, Fact>) this).solve(bcfg);
+    }
+
+    /**
+     * By default, the results of a data-flow analysis cannot be cached,
+     * the analyses supporting {@link ResultCache} should override this
+     * method to return the codec of their results.
+     *
+     * @return the codec of the results of this analysis, or null if
+     * the results cannot be cached.
+     */
+    protected ResultCodec<DataflowResult<Node, Fact>> getResultCodec() {
+        return null;
     }
 
     /**
@@ -61,4 +126,23 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
     public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * By default, a data-flow analysis has lattice of finite height,
+     * thus does not need widening.
+     */
+    @Override
+    public boolean needWidening() {
+        return false;
+    }
+
+    @Override
+    public boolean widenInto(Fact fact, Fact target) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean narrowInto(Fact fact, Fact target) {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -73,4 +73,28 @@ public interface DataflowAnalysis<Node, Fact> {
      * Edge Transfer function for this analysis.
      */
     Fact transferEdge(Edge<Node> edge, Fact nodeFact);
+
+    /**
+     * @return true if this analysis needs widening at loop heads to
+     * reach a fixed point in finite steps, otherwise false.
+     */
+    boolean needWidening();
+
+    /**
+     * Widens target with a fact, i.e., target = target widen fact.
+     * This function will be used at loop heads of forward analyses
+     * instead of {@link #meetInto(Object, Object)}.
+     *
+     * @return true if target changed as a result of the call, otherwise false.
+     */
+    boolean widenInto(Fact fact, Fact target);
+
+    /**
+     * Narrows target with a fact, i.e., target = target narrow fact.
+     * This function will be used at loop heads of forward analyses
+     * to recover precision after the fixed point is reached by widening.
+     *
+     * @return true if target changed as a result of the call, otherwise false.
+     */
+    boolean narrowInto(Fact fact, Fact target);
 }
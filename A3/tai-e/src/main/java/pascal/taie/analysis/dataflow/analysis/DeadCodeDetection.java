@@ -23,6 +23,8 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.cache.Codecs;
+import pascal.taie.analysis.dataflow.cache.ResultCache;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
@@ -39,25 +41,44 @@ import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.SwitchStmt;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
 import java.util.Comparator;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
 
-import java.util.Queue;
-import java.util.LinkedList;
-
 public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    /**
+     * On-disk cache of results, or null if the cache is not enabled.
+     */
+    private final ResultCache cache;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        cache = ResultCache.get(getOptions());
     }
 
     @Override
     public Set<Stmt> analyze(IR ir) {
+        if (cache != null) {
+            return cache.computeIfAbsent(this, ir, Codecs.STMT_SET,
+                    () -> detect(ir));
+        }
+        return detect(ir);
+    }
+
+    private Set<Stmt> detect(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (getOptions().getBooleanOrDefault("fused", false)) {
+            // compute reachability, constants and liveness in one detector,
+            // without the results of constprop and livevar
+            return new SparseDeadCodeDetector(cfg).detect();
+        }
         // obtain result of constant propagation
         DataflowResult<Stmt, CPFact> constants =
                 ir.getResult(ConstantPropagation.ID);
@@ -69,17 +90,20 @@ public class DeadCodeDetection extends MethodAnalysis {
         // TODO - finish me
         // Your task is to recognize dead code in ir and add it to deadCode
 
-        // to store traversed stmt
-        Set<Stmt> traversed = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        // to store reached stmt, indexed by Stmt.getIndex()
+        // (entry and exit of CFG are numbered after all stmts of IR),
+        // a stmt is marked when it is added to worklist, so that
+        // each stmt is enqueued at most once
+        BitSet reached = new BitSet(cfg.getNumberOfNodes());
         // add all stmt to deadCode for initialization
         // SHOULD NOT USE cfg.getNodes(), Entry & Exit should not add in Dead Code init
         deadCode.addAll(ir.getStmts());
         // if stmt is not dead, remove it from deadCode
-        Queue<Stmt> worklist = new LinkedList<>();
+        Queue<Stmt> worklist = new ArrayDeque<>();
         worklist.add(cfg.getEntry());
+        reached.set(cfg.getEntry().getIndex());
         while(!worklist.isEmpty()){
             Stmt stmt = worklist.poll();
-            traversed.add(stmt);
             if(stmt instanceof If if_stmt){
                 deadCode.remove(stmt);
                 ConditionExp condition = if_stmt.getCondition();
@@ -90,39 +114,18 @@ public class DeadCodeDetection extends MethodAnalysis {
                     // value only can be 0 or 1
                     assert(value.getConstant() == 0 || value.getConstant() == 1);
                     //tai-e ensure if_stmt has two edges -- IF_TRUE and IF_FALSE
-                    if(value.getConstant() == 1){
-                        for(Edge<Stmt> edge : cfg.getOutEdgesOf(if_stmt)){
-                            if(edge.getKind() == Edge.Kind.IF_TRUE){
-                                if(!worklist.contains(edge.getTarget()) && !traversed.contains(edge.getTarget())){
-                                    worklist.add(edge.getTarget());
-                                }
-                            }
-                        }
-                    }
-                    else if (value.getConstant() == 0){
-                        for(Edge<Stmt> edge : cfg.getOutEdgesOf(if_stmt)){
-                            if(edge.getKind() == Edge.Kind.IF_FALSE){
-                                if(!worklist.contains(edge.getTarget()) && !traversed.contains(edge.getTarget())){
-                                    worklist.add(edge.getTarget());
-                                }
-                            }
+                    Edge.Kind kind = value.getConstant() == 1 ?
+                            Edge.Kind.IF_TRUE : Edge.Kind.IF_FALSE;
+                    for(Edge<Stmt> edge : cfg.getOutEdgesOf(if_stmt)){
+                        if(edge.getKind() == kind){
+                            addIfNotReached(edge.getTarget(), worklist, reached);
                         }
                     }
-                    else{
-                        assert false;
-                    }
                 }
                 else if(value.isNAC()){
                     for(Stmt succ : cfg.getSuccsOf(stmt)){
-                        if(!worklist.contains(succ) && !traversed.contains(succ)){
-                            worklist.add(succ);
-                        }
+                        addIfNotReached(succ, worklist, reached);
                     }
-//                    for(Stmt target : if_stmt.getTargets()){
-//                        if(!worklist.contains(target) && !traversed.contains(target)){
-//                            worklist.add(target);
-//                        }
-//                    }
                 }
             }
             else if(stmt instanceof SwitchStmt switch_stmt){
@@ -134,26 +137,19 @@ public class DeadCodeDetection extends MethodAnalysis {
                     for (Edge<Stmt> edge : cfg.getOutEdgesOf(switch_stmt)) {
                         if (edge.isSwitchCase()) {
                             if(edge.getCaseValue() == value.getConstant()){
-                                if(!worklist.contains(edge.getTarget()) && !traversed.contains(edge.getTarget())){
-                                    worklist.add(edge.getTarget());
-                                }
+                                addIfNotReached(edge.getTarget(), worklist, reached);
                                 flag = true;
                                 break;
                             }
                         }
                     }
                     if(!flag){
-                        Stmt default_target = switch_stmt.getDefaultTarget();
-                        if (!worklist.contains(default_target) && !traversed.contains(default_target)) {
-                            worklist.add(default_target);
-                        }
+                        addIfNotReached(switch_stmt.getDefaultTarget(), worklist, reached);
                     }
                 }
                 else{
                     for(Stmt succ : cfg.getSuccsOf(stmt)){
-                        if(!worklist.contains(succ) && !traversed.contains(succ)){
-                            worklist.add(succ);
-                        }
+                        addIfNotReached(succ, worklist, reached);
                     }
                 }
             }
@@ -179,19 +175,28 @@ public class DeadCodeDetection extends MethodAnalysis {
                     deadCode.remove(stmt);
                 }
                 for (Stmt succ : cfg.getSuccsOf(stmt)) {
-                    if (!worklist.contains(succ) && !traversed.contains(succ)) {
-                        worklist.add(succ);
-                    }
+                    addIfNotReached(succ, worklist, reached);
                 }
             }
         }
         return deadCode;
     }
 
+    /**
+     * Adds stmt to worklist if it has not been reached before.
+     */
+    private static void addIfNotReached(
+            Stmt stmt, Queue<Stmt> worklist, BitSet reached) {
+        if (!reached.get(stmt.getIndex())) {
+            reached.set(stmt.getIndex());
+            worklist.add(stmt);
+        }
+    }
+
     /**
      * @return true if given RValue has no side effect, otherwise false.
      */
-    private static boolean hasNoSideEffect(RValue rvalue) {
+    static boolean hasNoSideEffect(RValue rvalue) {
         // new expression modifies the heap
         if (rvalue instanceof NewExp ||
                 // cast may trigger ClassCastException
@@ -22,6 +22,9 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.cache.Codecs;
+import pascal.taie.analysis.dataflow.cache.ResultCodec;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
@@ -49,6 +52,11 @@ public class LiveVariableAnalysis extends
         return false;
     }
 
+    @Override
+    protected ResultCodec<DataflowResult<Stmt, SetFact<Var>>> getResultCodec() {
+        return Codecs.dataflowResult(Codecs.VAR_SET_FACT);
+    }
+
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
@@ -0,0 +1,297 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Dead code detector which computes reachability and constants together
+ * in one conditional constant propagation pass (in the style of SCCP),
+ * and then computes liveness only over the executable part of the CFG.
+ * <p>
+ * Different from the default pipeline of {@link DeadCodeDetection}, this
+ * detector does not need the results of {@link ConstantPropagation} and
+ * {@link LiveVariableAnalysis}, and as facts never flow along
+ * non-executable edges, it may find more dead code.
+ * All node sets are {@link BitSet}s indexed by {@link Stmt#getIndex()}
+ * (the CFG entry and exit are numbered right after the IR statements).
+ */
+class SparseDeadCodeDetector {
+
+    private final CFG<Stmt> cfg;
+
+    private final IR ir;
+
+    /**
+     * IN facts of constant propagation, indexed by statement index.
+     * A null element means the statement has not been reached.
+     */
+    private final CPFact[] inFacts;
+
+    /**
+     * Statements found executable.
+     */
+    private final BitSet executable;
+
+    SparseDeadCodeDetector(CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        this.ir = cfg.getIR();
+        int nodes = cfg.getNumberOfNodes();
+        this.inFacts = new CPFact[nodes];
+        this.executable = new BitSet(nodes);
+    }
+
+    /**
+     * @return the dead code of the method, sorted by statement index.
+     */
+    Set<Stmt> detect() {
+        propagate();
+        BitSet[] liveOut = computeLiveness();
+        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        for (Stmt stmt : ir.getStmts()) {
+            int index = stmt.getIndex();
+            if (!executable.get(index)) {
+                deadCode.add(stmt);
+            } else if (stmt instanceof AssignStmt<?, ?> assign &&
+                    assign.getLValue() instanceof Var var &&
+                    !liveOut[index].get(var.getIndex()) &&
+                    DeadCodeDetection.hasNoSideEffect(assign.getRValue())) {
+                deadCode.add(stmt);
+            }
+        }
+        return deadCode;
+    }
+
+    /**
+     * Conditional constant propagation: facts only flow along the edges
+     * which are executable under the current facts.
+     */
+    private void propagate() {
+        Queue<Stmt> workList = new ArrayDeque<>();
+        BitSet inWorkList = new BitSet(inFacts.length);
+        Stmt entry = cfg.getEntry();
+        CPFact boundary = new CPFact();
+        for (Var param : ir.getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                boundary.update(param, Value.getNAC());
+            }
+        }
+        inFacts[entry.getIndex()] = boundary;
+        executable.set(entry.getIndex());
+        workList.add(entry);
+        inWorkList.set(entry.getIndex());
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            inWorkList.clear(stmt.getIndex());
+            CPFact in = inFacts[stmt.getIndex()];
+            CPFact out = transfer(stmt, in);
+            for (Stmt succ : getExecutableSuccsOf(stmt, in)) {
+                int succIndex = succ.getIndex();
+                boolean changed = false;
+                if (!executable.get(succIndex)) {
+                    executable.set(succIndex);
+                    inFacts[succIndex] = new CPFact();
+                    changed = true;
+                }
+                changed |= meetInto(out, inFacts[succIndex]);
+                if (changed && !inWorkList.get(succIndex)) {
+                    workList.add(succ);
+                    inWorkList.set(succIndex);
+                }
+            }
+        }
+    }
+
+    private static CPFact transfer(Stmt stmt, CPFact in) {
+        CPFact out = in.copy();
+        if (stmt.getDef().orElse(null) instanceof Var var &&
+                ConstantPropagation.canHoldInt(var)) {
+            if (stmt instanceof AssignStmt<?, ?> assign) {
+                out.update(var, ConstantPropagation.evaluate(assign.getRValue(), in));
+            } else {
+                // e.g., invocations, of which the result is unknown
+                out.update(var, Value.getNAC());
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Meets fact into target, and the meet is monotone, thus pushing
+     * the OUT fact of a predecessor each time it changes gives the same
+     * IN fact as meeting over all predecessors.
+     *
+     * @return true if target changed as a result of the call.
+     */
+    private static boolean meetInto(CPFact fact, CPFact target) {
+        boolean changed = false;
+        for (Var var : fact.keySet()) {
+            changed |= target.update(var, meetValue(fact.get(var), target.get(var)));
+        }
+        return changed;
+    }
+
+    private static Value meetValue(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        }
+        if (v2.isUndef()) {
+            return v1;
+        }
+        if (v1.isConstant() && v2.isConstant() &&
+                v1.getConstant() == v2.getConstant()) {
+            return v1;
+        }
+        return Value.getNAC();
+    }
+
+    /**
+     * @return successors of given statement which are executable under
+     * given IN fact. An UNDEF condition makes no successor executable yet.
+     */
+    private List<Stmt> getExecutableSuccsOf(Stmt stmt, CPFact in) {
+        List<Stmt> succs = new ArrayList<>(2);
+        if (stmt instanceof If ifStmt) {
+            Value cond = ConstantPropagation.evaluate(ifStmt.getCondition(), in);
+            if (cond.isConstant()) {
+                Edge.Kind kind = cond.getConstant() == 1 ?
+                        Edge.Kind.IF_TRUE : Edge.Kind.IF_FALSE;
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                    if (edge.getKind() == kind || edge.isExceptional()) {
+                        succs.add(edge.getTarget());
+                    }
+                }
+                return succs;
+            }
+            if (cond.isUndef()) {
+                return succs;
+            }
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            Value value = in.get(switchStmt.getVar());
+            if (value.isConstant()) {
+                Stmt target = switchStmt.getDefaultTarget();
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                    if (edge.isSwitchCase() &&
+                            edge.getCaseValue() == value.getConstant()) {
+                        target = edge.getTarget();
+                        break;
+                    }
+                }
+                succs.add(target);
+                return succs;
+            }
+            if (value.isUndef()) {
+                return succs;
+            }
+        }
+        succs.addAll(cfg.getSuccsOf(stmt));
+        return succs;
+    }
+
+    /**
+     * Backward live variable analysis on the executable sub-CFG,
+     * facts are {@link BitSet}s indexed by {@link Var#getIndex()}.
+     *
+     * @return live-out variables of each executable statement.
+     */
+    private BitSet[] computeLiveness() {
+        int nodes = inFacts.length;
+        BitSet[] liveIn = new BitSet[nodes];
+        BitSet[] liveOut = new BitSet[nodes];
+        // executable predecessors of each statement
+        List<List<Stmt>> preds = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; ++i) {
+            preds.add(null);
+        }
+        Queue<Stmt> workList = new ArrayDeque<>();
+        BitSet inWorkList = new BitSet(nodes);
+        for (Stmt stmt : cfg) {
+            int index = stmt.getIndex();
+            if (executable.get(index)) {
+                liveIn[index] = new BitSet();
+                liveOut[index] = new BitSet();
+                for (Stmt succ : getExecutableSuccsOf(stmt, inFacts[index])) {
+                    List<Stmt> succPreds = preds.get(succ.getIndex());
+                    if (succPreds == null) {
+                        succPreds = new ArrayList<>(2);
+                        preds.set(succ.getIndex(), succPreds);
+                    }
+                    succPreds.add(stmt);
+                }
+                workList.add(stmt);
+                inWorkList.set(index);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            int index = stmt.getIndex();
+            inWorkList.clear(index);
+            BitSet in = (BitSet) liveOut[index].clone();
+            LValue def = stmt.getDef().orElse(null);
+            if (def instanceof Var var) {
+                in.clear(var.getIndex());
+            }
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var) {
+                    in.set(var.getIndex());
+                }
+            }
+            if (!in.equals(liveIn[index])) {
+                liveIn[index] = in;
+                List<Stmt> stmtPreds = preds.get(index);
+                if (stmtPreds != null) {
+                    for (Stmt pred : stmtPreds) {
+                        int predIndex = pred.getIndex();
+                        liveOut[predIndex].or(in);
+                        if (!inWorkList.get(predIndex)) {
+                            workList.add(pred);
+                            inWorkList.set(predIndex);
+                        }
+                    }
+                }
+            }
+        }
+        return liveOut;
+    }
+}
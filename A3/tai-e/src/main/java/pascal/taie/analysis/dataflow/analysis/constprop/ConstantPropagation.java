@@ -23,6 +23,9 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.cache.Codecs;
+import pascal.taie.analysis.dataflow.cache.ResultCodec;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
@@ -47,6 +50,11 @@ public class ConstantPropagation extends
         return true;
     }
 
+    @Override
+    protected ResultCodec<DataflowResult<Stmt, CPFact>> getResultCodec() {
+        return Codecs.dataflowResult(Codecs.CP_FACT);
+    }
+
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
@@ -0,0 +1,282 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.interval;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Static utility methods for integer intervals.
+ * <p>
+ * For compactness, an interval [lo, hi] is represented by a primitive
+ * long, whose upper 32 bits hold lo and lower 32 bits hold hi.
+ * The bounds are ordinary int values, so {@link #TOP} is
+ * [{@link Integer#MIN_VALUE}, {@link Integer#MAX_VALUE}].
+ * Any interval with lo > hi is empty, and {@link #BOTTOM} is its
+ * canonical representation.
+ */
+public final class Interval {
+
+    private Interval() {
+    }
+
+    static final int MIN = Integer.MIN_VALUE;
+
+    static final int MAX = Integer.MAX_VALUE;
+
+    /**
+     * The empty interval.
+     */
+    public static final long BOTTOM = make(MAX, MIN);
+
+    /**
+     * The interval of all integers.
+     */
+    public static final long TOP = make(MIN, MAX);
+
+    /**
+     * The interval of booleans, i.e., [0, 1].
+     */
+    static final long BOOL = make(0, 1);
+
+    /**
+     * @return interval [lo, hi], or {@link #BOTTOM} if lo > hi.
+     */
+    public static long make(int lo, int hi) {
+        if (lo > hi) {
+            lo = MAX;
+            hi = MIN;
+        }
+        return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return interval [c, c].
+     */
+    public static long constant(int c) {
+        return make(c, c);
+    }
+
+    public static int lo(long i) {
+        return (int) (i >> 32);
+    }
+
+    public static int hi(long i) {
+        return (int) i;
+    }
+
+    public static boolean isBottom(long i) {
+        return lo(i) > hi(i);
+    }
+
+    public static boolean isConstant(long i) {
+        return lo(i) == hi(i);
+    }
+
+    public static long join(long i1, long i2) {
+        if (isBottom(i1)) {
+            return i2;
+        }
+        if (isBottom(i2)) {
+            return i1;
+        }
+        return make(Math.min(lo(i1), lo(i2)), Math.max(hi(i1), hi(i2)));
+    }
+
+    public static long meet(long i1, long i2) {
+        return make(Math.max(lo(i1), lo(i2)), Math.min(hi(i1), hi(i2)));
+    }
+
+    /**
+     * Standard widening: the bounds which are still growing
+     * are pushed to the limits of int.
+     */
+    public static long widen(long old, long now) {
+        if (isBottom(old)) {
+            return now;
+        }
+        if (isBottom(now)) {
+            return old;
+        }
+        return make(lo(now) < lo(old) ? MIN : lo(old),
+                hi(now) > hi(old) ? MAX : hi(old));
+    }
+
+    /**
+     * Standard narrowing: only the bounds at the limits of int are refined.
+     */
+    public static long narrow(long old, long now) {
+        if (isBottom(old) || isBottom(now)) {
+            return BOTTOM;
+        }
+        return make(lo(old) == MIN ? lo(now) : lo(old),
+                hi(old) == MAX ? hi(now) : hi(old));
+    }
+
+    // ---------- arithmetic ----------
+    // Operands of the following operations must not be BOTTOM.
+
+    /**
+     * @return interval [lo, hi] computed in long. As int arithmetic
+     * wraps around on overflow, any bound out of int range results
+     * in {@link #TOP}.
+     */
+    private static long clamp(long lo, long hi) {
+        if (lo < MIN || hi > MAX) {
+            return TOP;
+        }
+        return make((int) lo, (int) hi);
+    }
+
+    /**
+     * @return interval of the int values in [lo, hi], where lo and hi
+     * may be out of int range, e.g., [lo, MAX + 1] is [lo, MAX].
+     */
+    static long range(long lo, long hi) {
+        if (lo > MAX || hi < MIN) {
+            return BOTTOM;
+        }
+        return make((int) Math.max(lo, MIN), (int) Math.min(hi, MAX));
+    }
+
+    static long add(long i1, long i2) {
+        return clamp((long) lo(i1) + lo(i2), (long) hi(i1) + hi(i2));
+    }
+
+    static long sub(long i1, long i2) {
+        return clamp((long) lo(i1) - hi(i2), (long) hi(i1) - lo(i2));
+    }
+
+    static long mul(long i1, long i2) {
+        long a = (long) lo(i1) * lo(i2), b = (long) lo(i1) * hi(i2);
+        long c = (long) hi(i1) * lo(i2), d = (long) hi(i1) * hi(i2);
+        return clamp(Math.min(Math.min(a, b), Math.min(c, d)),
+                Math.max(Math.max(a, b), Math.max(c, d)));
+    }
+
+    /**
+     * Division by an interval excluding 0; division by zero throws
+     * exception, thus no value flows out in that case.
+     */
+    static long div(long i1, long i2) {
+        if (lo(i2) <= 0 && hi(i2) >= 0) {
+            // exclude zero from the divisor
+            if (isConstant(i2)) {
+                return BOTTOM;
+            }
+            return join(div(i1, meet(i2, make(MIN, -1))),
+                    div(i1, meet(i2, make(1, MAX))));
+        }
+        if (isBottom(i2)) {
+            return BOTTOM;
+        }
+        long a = (long) lo(i1) / lo(i2), b = (long) lo(i1) / hi(i2);
+        long c = (long) hi(i1) / lo(i2), d = (long) hi(i1) / hi(i2);
+        return clamp(Math.min(Math.min(a, b), Math.min(c, d)),
+                Math.max(Math.max(a, b), Math.max(c, d)));
+    }
+
+    static long rem(long i1, long i2) {
+        if (isConstant(i2) && lo(i2) == 0) {
+            return BOTTOM;
+        }
+        if (isConstant(i1) && isConstant(i2)) {
+            return constant(lo(i1) % lo(i2));
+        }
+        // |x % y| < |y| and x % y has the sign of x
+        long max = Math.max(Math.abs((long) lo(i2)), Math.abs((long) hi(i2))) - 1;
+        int bound = (int) Math.min(max, MAX);
+        int lo = lo(i1) >= 0 ? 0 : Math.max(lo(i1), -bound);
+        int hi = hi(i1) <= 0 ? 0 : Math.min(hi(i1), bound);
+        return make(lo, hi);
+    }
+
+    static long and(long i1, long i2) {
+        if (isConstant(i1) && isConstant(i2)) {
+            return constant(lo(i1) & lo(i2));
+        }
+        if (lo(i1) >= 0 || lo(i2) >= 0) {
+            // x & y is non-negative and no larger than the non-negative operand
+            int hi = lo(i1) >= 0 && lo(i2) >= 0 ? Math.min(hi(i1), hi(i2)) :
+                    lo(i1) >= 0 ? hi(i1) : hi(i2);
+            return make(0, hi);
+        }
+        return TOP;
+    }
+
+    /**
+     * Evaluates bitwise OR, XOR and shifts precisely only for constants.
+     */
+    static long constantOnly(long i1, long i2, IntBinaryOperator op) {
+        if (isConstant(i1) && isConstant(i2)) {
+            return constant(op.applyAsInt(lo(i1), lo(i2)));
+        }
+        return TOP;
+    }
+
+    // ---------- comparison ----------
+
+    /**
+     * @return [1, 1] if i1 < i2 always holds, [0, 0] if it never holds,
+     * otherwise [0, 1].
+     */
+    static long lt(long i1, long i2) {
+        if (hi(i1) < lo(i2)) {
+            return constant(1);
+        }
+        if (lo(i1) >= hi(i2)) {
+            return constant(0);
+        }
+        return BOOL;
+    }
+
+    static long le(long i1, long i2) {
+        if (hi(i1) <= lo(i2)) {
+            return constant(1);
+        }
+        if (lo(i1) > hi(i2)) {
+            return constant(0);
+        }
+        return BOOL;
+    }
+
+    static long eq(long i1, long i2) {
+        if (isConstant(i1) && isConstant(i2) && lo(i1) == lo(i2)) {
+            return constant(1);
+        }
+        if (isBottom(meet(i1, i2))) {
+            return constant(0);
+        }
+        return BOOL;
+    }
+
+    static long not(long b) {
+        return make(1 - hi(b), 1 - lo(b));
+    }
+
+    public static String toString(long i) {
+        if (isBottom(i)) {
+            return "BOTTOM";
+        }
+        return "[" + lo(i) + ", " + hi(i) + "]";
+    }
+}
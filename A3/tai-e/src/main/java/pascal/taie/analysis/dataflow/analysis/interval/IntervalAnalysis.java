@@ -0,0 +1,292 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.interval;
+
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import static pascal.taie.analysis.dataflow.analysis.interval.Interval.MAX;
+import static pascal.taie.analysis.dataflow.analysis.interval.Interval.MIN;
+import static pascal.taie.analysis.dataflow.analysis.interval.Interval.hi;
+import static pascal.taie.analysis.dataflow.analysis.interval.Interval.lo;
+
+/**
+ * Interval analysis, which computes the range of values of each integer
+ * variable, e.g., array indexes and loop bounds.
+ * <p>
+ * As the interval lattice has infinite height, the analysis relies on
+ * widening at loop heads (the targets of CFG back edges) to terminate,
+ * and then narrowing to recover the bounds lost by widening.
+ * Conditions of if statements and cases of switch statements
+ * refine the intervals along the outgoing edges.
+ */
+public class IntervalAnalysis extends
+        AbstractDataflowAnalysis<Stmt, IntervalFact> {
+
+    public static final String ID = "interval";
+
+    public IntervalAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public IntervalFact newBoundaryFact(CFG<Stmt> cfg) {
+        IntervalFact fact = new IntervalFact();
+        for (Var param : cfg.getIR().getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                fact.update(param, rangeOf((PrimitiveType) param.getType()));
+            }
+        }
+        return fact;
+    }
+
+    /**
+     * @return the range of values of given integer type.
+     */
+    private static long rangeOf(PrimitiveType type) {
+        return switch (type) {
+            case BYTE -> Interval.make(Byte.MIN_VALUE, Byte.MAX_VALUE);
+            case SHORT -> Interval.make(Short.MIN_VALUE, Short.MAX_VALUE);
+            case CHAR -> Interval.make(Character.MIN_VALUE, Character.MAX_VALUE);
+            case BOOLEAN -> Interval.BOOL;
+            default -> Interval.TOP;
+        };
+    }
+
+    @Override
+    public IntervalFact newInitialFact() {
+        return new IntervalFact();
+    }
+
+    @Override
+    public void meetInto(IntervalFact fact, IntervalFact target) {
+        target.join(fact);
+    }
+
+    @Override
+    public boolean needWidening() {
+        return true;
+    }
+
+    @Override
+    public boolean widenInto(IntervalFact fact, IntervalFact target) {
+        return target.widen(fact);
+    }
+
+    @Override
+    public boolean narrowInto(IntervalFact fact, IntervalFact target) {
+        return target.narrow(fact);
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, IntervalFact in, IntervalFact out) {
+        IntervalFact newOut = in.copy();
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt) {
+            LValue def = defStmt.getLValue();
+            if (def instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                newOut.update(var, evaluate(defStmt.getRValue(), in));
+            }
+        }
+        return out.set(newOut);
+    }
+
+    /**
+     * Evaluates the interval of given expression.
+     *
+     * @param exp the expression to be evaluated
+     * @param in  IN fact of the statement
+     * @return the resulting interval
+     */
+    public static long evaluate(Exp exp, IntervalFact in) {
+        if (exp instanceof Var var) {
+            return ConstantPropagation.canHoldInt(var) ?
+                    in.get(var) : Interval.TOP;
+        }
+        if (exp instanceof IntLiteral literal) {
+            return Interval.constant(literal.getValue());
+        }
+        if (exp instanceof BinaryExp binary) {
+            Var left = binary.getOperand1();
+            Var right = binary.getOperand2();
+            if (!ConstantPropagation.canHoldInt(left) ||
+                    !ConstantPropagation.canHoldInt(right)) {
+                return Interval.TOP;
+            }
+            long i1 = in.get(left);
+            long i2 = in.get(right);
+            if (Interval.isBottom(i1) || Interval.isBottom(i2)) {
+                return Interval.BOTTOM;
+            }
+            if (binary instanceof ArithmeticExp arithmetic) {
+                return switch (arithmetic.getOperator()) {
+                    case ADD -> Interval.add(i1, i2);
+                    case SUB -> Interval.sub(i1, i2);
+                    case MUL -> Interval.mul(i1, i2);
+                    case DIV -> Interval.div(i1, i2);
+                    case REM -> Interval.rem(i1, i2);
+                };
+            } else if (binary instanceof BitwiseExp bitwise) {
+                return switch (bitwise.getOperator()) {
+                    case AND -> Interval.and(i1, i2);
+                    case OR -> Interval.constantOnly(i1, i2, (x, y) -> x | y);
+                    case XOR -> Interval.constantOnly(i1, i2, (x, y) -> x ^ y);
+                };
+            } else if (binary instanceof ShiftExp shift) {
+                return switch (shift.getOperator()) {
+                    case SHL -> Interval.constantOnly(i1, i2, (x, y) -> x << y);
+                    case SHR -> Interval.constantOnly(i1, i2, (x, y) -> x >> y);
+                    case USHR -> Interval.constantOnly(i1, i2, (x, y) -> x >>> y);
+                };
+            } else if (binary instanceof ConditionExp condition) {
+                return switch (condition.getOperator()) {
+                    case EQ -> Interval.eq(i1, i2);
+                    case NE -> Interval.not(Interval.eq(i1, i2));
+                    case LT -> Interval.lt(i1, i2);
+                    case LE -> Interval.le(i1, i2);
+                    case GT -> Interval.lt(i2, i1);
+                    case GE -> Interval.le(i2, i1);
+                };
+            }
+        }
+        // e.g., invocations, field and array loads
+        return Interval.TOP;
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        return switch (edge.getKind()) {
+            case IF_TRUE, IF_FALSE -> {
+                ConditionExp cond = ((If) edge.getSource()).getCondition();
+                yield ConstantPropagation.canHoldInt(cond.getOperand1()) &&
+                        ConstantPropagation.canHoldInt(cond.getOperand2());
+            }
+            case SWITCH_CASE -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public IntervalFact transferEdge(Edge<Stmt> edge, IntervalFact nodeFact) {
+        IntervalFact fact = nodeFact.copy();
+        if (edge.isSwitchCase()) {
+            Var var = ((SwitchStmt) edge.getSource()).getVar();
+            fact.update(var, Interval.meet(fact.get(var),
+                    Interval.constant(edge.getCaseValue())));
+        } else {
+            ConditionExp cond = ((If) edge.getSource()).getCondition();
+            ConditionExp.Op op = cond.getOperator();
+            if (edge.getKind() == Edge.Kind.IF_FALSE) {
+                op = negate(op);
+            }
+            refine(fact, cond.getOperand1(), op, cond.getOperand2());
+        }
+        return fact;
+    }
+
+    private static ConditionExp.Op negate(ConditionExp.Op op) {
+        return switch (op) {
+            case EQ -> ConditionExp.Op.NE;
+            case NE -> ConditionExp.Op.EQ;
+            case LT -> ConditionExp.Op.GE;
+            case LE -> ConditionExp.Op.GT;
+            case GT -> ConditionExp.Op.LE;
+            case GE -> ConditionExp.Op.LT;
+        };
+    }
+
+    /**
+     * Refines the intervals of x and y in fact by assuming (x op y) holds.
+     */
+    private static void refine(IntervalFact fact, Var x, ConditionExp.Op op, Var y) {
+        long ix = fact.get(x), iy = fact.get(y);
+        if (Interval.isBottom(ix) || Interval.isBottom(iy)) {
+            return;
+        }
+        switch (op) {
+            case EQ -> {
+                long both = Interval.meet(ix, iy);
+                fact.update(x, both);
+                fact.update(y, both);
+            }
+            case NE -> {
+                if (Interval.isConstant(iy)) {
+                    fact.update(x, exclude(ix, lo(iy)));
+                }
+                if (Interval.isConstant(ix)) {
+                    fact.update(y, exclude(iy, lo(ix)));
+                }
+            }
+            case LT -> refineLess(fact, x, ix, y, iy, 1);
+            case LE -> refineLess(fact, x, ix, y, iy, 0);
+            case GT -> refineLess(fact, y, iy, x, ix, 1);
+            case GE -> refineLess(fact, y, iy, x, ix, 0);
+        }
+    }
+
+    /**
+     * Refines x and y by assuming x + strict <= y.
+     */
+    private static void refineLess(IntervalFact fact, Var x, long ix,
+                                   Var y, long iy, int strict) {
+        fact.update(x, Interval.meet(ix,
+                Interval.range(MIN, (long) hi(iy) - strict)));
+        fact.update(y, Interval.meet(iy,
+                Interval.range((long) lo(ix) + strict, MAX)));
+    }
+
+    /**
+     * @return interval i excluding value c, which is only
+     * possible when c is one of the bounds of i.
+     */
+    private static long exclude(long i, int c) {
+        if (lo(i) == c) {
+            return Interval.range((long) c + 1, hi(i));
+        }
+        if (hi(i) == c) {
+            return Interval.range(lo(i), (long) c - 1);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.interval;
+
+import pascal.taie.ir.exp.Var;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Data-flow facts of interval analysis, which map variables to intervals.
+ * <p>
+ * The intervals are kept in a primitive long array indexed by
+ * {@link Var#getIndex()} (see {@link Interval} for the encoding).
+ * Absent variables are mapped to {@link Interval#BOTTOM}, and the
+ * array grows on demand, thus the fact does not need to know the
+ * number of variables of the method in advance.
+ */
+public class IntervalFact {
+
+    private static final long[] EMPTY_VALUES = {};
+
+    private static final Var[] EMPTY_VARS = {};
+
+    private long[] values;
+
+    /**
+     * Variables of the tracked intervals, only used for printing.
+     */
+    private Var[] vars;
+
+    public IntervalFact() {
+        values = EMPTY_VALUES;
+        vars = EMPTY_VARS;
+    }
+
+    private IntervalFact(long[] values, Var[] vars) {
+        this.values = values;
+        this.vars = vars;
+    }
+
+    /**
+     * @return the interval of given variable, encoded as described
+     * in {@link Interval}.
+     */
+    public long get(Var var) {
+        int i = var.getIndex();
+        return i < values.length ? values[i] : Interval.BOTTOM;
+    }
+
+    /**
+     * Updates the interval of given variable.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean update(Var var, long interval) {
+        int i = var.getIndex();
+        if (i >= values.length) {
+            if (Interval.isBottom(interval)) {
+                return false;
+            }
+            int length = Math.max(i + 1, values.length * 2);
+            int oldLength = values.length;
+            values = Arrays.copyOf(values, length);
+            Arrays.fill(values, oldLength, length, Interval.BOTTOM);
+            vars = Arrays.copyOf(vars, length);
+        }
+        vars[i] = var;
+        if (values[i] != interval) {
+            values[i] = interval;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Joins given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean join(IntervalFact fact) {
+        return combine(fact, Interval::join);
+    }
+
+    public boolean widen(IntervalFact fact) {
+        return combine(fact, Interval::widen);
+    }
+
+    public boolean narrow(IntervalFact fact) {
+        return combine(fact, Interval::narrow);
+    }
+
+    private boolean combine(IntervalFact fact, LongBinaryOperator op) {
+        boolean changed = false;
+        int length = Math.max(values.length, fact.values.length);
+        for (int i = 0; i < length; ++i) {
+            Var var = i < fact.vars.length && fact.vars[i] != null ?
+                    fact.vars[i] : (i < vars.length ? vars[i] : null);
+            if (var != null) {
+                long old = get(var);
+                long other = fact.get(var);
+                changed |= update(var, op.applyAsLong(old, other));
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the content of this fact to be the same as given fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean set(IntervalFact fact) {
+        if (equals(fact)) {
+            return false;
+        }
+        values = fact.values.clone();
+        vars = fact.vars.clone();
+        return true;
+    }
+
+    public IntervalFact copy() {
+        return new IntervalFact(values.clone(), vars.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        IntervalFact that = (IntervalFact) o;
+        int length = Math.max(values.length, that.values.length);
+        for (int i = 0; i < length; ++i) {
+            long v1 = i < values.length ? values[i] : Interval.BOTTOM;
+            long v2 = i < that.values.length ? that.values[i] : Interval.BOTTOM;
+            if (v1 != v2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != Interval.BOTTOM) {
+                hash = 31 * hash + i;
+                hash = 31 * hash + Long.hashCode(values[i]);
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        // sort variables by name, so that the representation
+        // is stable across executions, as MapFact does
+        return "{" + IntStream.range(0, values.length)
+                .filter(i -> values[i] != Interval.BOTTOM)
+                .mapToObj(i -> vars[i])
+                .sorted(Comparator.comparing(Var::toString))
+                .map(v -> v + "=" + Interval.toString(get(v)))
+                .collect(Collectors.joining(", ")) + "}";
+    }
+}
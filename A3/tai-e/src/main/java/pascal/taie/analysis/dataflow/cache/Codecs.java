@@ -0,0 +1,211 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.cache;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Codecs of the results of constprop, livevar and deadcode.
+ * <p>
+ * Variables and statements are encoded by their indexes
+ * ({@link Var#getIndex()} and {@link Stmt#getIndex()}), and all
+ * counts and indexes are written as unsigned variable-length integers.
+ */
+public final class Codecs {
+
+    private Codecs() {
+    }
+
+    private static final int NAC = 0;
+
+    private static final int CONSTANT = 1;
+
+    /**
+     * Codec of {@link CPFact}. UNDEF values are absent in the facts,
+     * thus only NAC and constant values are encoded.
+     */
+    public static final ResultCodec<CPFact> CP_FACT = new ResultCodec<>() {
+
+        @Override
+        public void encode(CPFact fact, IR ir, DataOutput out) throws IOException {
+            writeVarInt(out, fact.keySet().size());
+            for (Var var : fact.keySet()) {
+                writeVarInt(out, var.getIndex());
+                Value value = fact.get(var);
+                if (value.isConstant()) {
+                    out.writeByte(CONSTANT);
+                    out.writeInt(value.getConstant());
+                } else {
+                    out.writeByte(NAC);
+                }
+            }
+        }
+
+        @Override
+        public CPFact decode(IR ir, DataInput in) throws IOException {
+            CPFact fact = new CPFact();
+            int size = readVarInt(in);
+            for (int i = 0; i < size; ++i) {
+                Var var = ir.getVar(readVarInt(in));
+                Value value = in.readByte() == CONSTANT ?
+                        Value.makeConstant(in.readInt()) : Value.getNAC();
+                fact.update(var, value);
+            }
+            return fact;
+        }
+    };
+
+    /**
+     * Codec of {@link SetFact} of variables, e.g., live variables.
+     */
+    public static final ResultCodec<SetFact<Var>> VAR_SET_FACT = new ResultCodec<>() {
+
+        @Override
+        public void encode(SetFact<Var> fact, IR ir, DataOutput out) throws IOException {
+            writeVarInt(out, fact.size());
+            for (Var var : fact.stream().toList()) {
+                writeVarInt(out, var.getIndex());
+            }
+        }
+
+        @Override
+        public SetFact<Var> decode(IR ir, DataInput in) throws IOException {
+            SetFact<Var> fact = new SetFact<>();
+            int size = readVarInt(in);
+            for (int i = 0; i < size; ++i) {
+                fact.add(ir.getVar(readVarInt(in)));
+            }
+            return fact;
+        }
+    };
+
+    /**
+     * Codec of statement sets, e.g., dead code. The decoded set
+     * is sorted by statement index.
+     */
+    public static final ResultCodec<Set<Stmt>> STMT_SET = new ResultCodec<>() {
+
+        @Override
+        public void encode(Set<Stmt> stmts, IR ir, DataOutput out) throws IOException {
+            writeVarInt(out, stmts.size());
+            for (Stmt stmt : stmts) {
+                writeVarInt(out, stmt.getIndex());
+            }
+        }
+
+        @Override
+        public Set<Stmt> decode(IR ir, DataInput in) throws IOException {
+            Set<Stmt> stmts = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+            int size = readVarInt(in);
+            for (int i = 0; i < size; ++i) {
+                stmts.add(ir.getStmt(readVarInt(in)));
+            }
+            return stmts;
+        }
+    };
+
+    /**
+     * @return codec of {@link DataflowResult} over the statement-level
+     * CFG of the IR, whose facts are encoded by factCodec. The IN and
+     * OUT facts of all CFG nodes (including entry and exit) are encoded
+     * in the order of node index.
+     */
+    public static <Fact> ResultCodec<DataflowResult<Stmt, Fact>> dataflowResult(
+            ResultCodec<Fact> factCodec) {
+        return new ResultCodec<>() {
+
+            @Override
+            public void encode(DataflowResult<Stmt, Fact> result, IR ir,
+                               DataOutput out) throws IOException {
+                Stmt[] nodes = getNodes(ir);
+                writeVarInt(out, nodes.length);
+                for (Stmt node : nodes) {
+                    factCodec.encode(result.getInFact(node), ir, out);
+                    factCodec.encode(result.getOutFact(node), ir, out);
+                }
+            }
+
+            @Override
+            public DataflowResult<Stmt, Fact> decode(IR ir, DataInput in)
+                    throws IOException {
+                Stmt[] nodes = getNodes(ir);
+                if (readVarInt(in) != nodes.length) {
+                    throw new IOException("Mismatched number of CFG nodes");
+                }
+                DataflowResult<Stmt, Fact> result = new DataflowResult<>();
+                for (Stmt node : nodes) {
+                    result.setInFact(node, factCodec.decode(ir, in));
+                    result.setOutFact(node, factCodec.decode(ir, in));
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * @return nodes of the CFG of ir, indexed by {@link Stmt#getIndex()}.
+     */
+    private static Stmt[] getNodes(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        Stmt[] nodes = new Stmt[cfg.getNumberOfNodes()];
+        for (Stmt node : cfg) {
+            nodes[node.getIndex()] = node;
+        }
+        return nodes;
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
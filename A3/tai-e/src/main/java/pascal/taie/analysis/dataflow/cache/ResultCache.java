@@ -0,0 +1,396 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.Analysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Persistent on-disk cache of per-method analysis results.
+ * <p>
+ * Each result is stored in its own file, named by a stable hash of
+ * the analysis ID and options, the IDs and options of the analyses it
+ * requires (recursively, as their results are its inputs), and the IR
+ * of the method (signature, variables, statements and exception entries),
+ * thus the results of unchanged methods can be reused across runs.
+ * The options of the cache itself are not part of the hash.
+ * The total size of the cache is bounded, and when it is exceeded,
+ * the least recently used entries are evicted. Recency survives
+ * across runs as the last-modified time of the entry files.
+ * <p>
+ * The cache is enabled for an analysis by option {@code cache-dir},
+ * and option {@code cache-size} gives the size bound in MB.
+ * The cache is thread-safe.
+ */
+public class ResultCache {
+
+    private static final Logger logger = LogManager.getLogger(ResultCache.class);
+
+    private static final String CACHE_DIR = "cache-dir";
+
+    private static final String CACHE_SIZE = "cache-size";
+
+    private static final int DEFAULT_CACHE_SIZE = 512; // MB
+
+    private static final int MAGIC = 0x54524331; // "TRC1"
+
+    private static final String SUFFIX = ".bin";
+
+    /**
+     * Caches opened in this run, shared by all analyses using the same directory.
+     */
+    private static final Map<Path, ResultCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Options which only configure the cache and do not affect results.
+     */
+    private static final Set<String> CACHE_OPTIONS = Set.of(CACHE_DIR, CACHE_SIZE);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Configs of the analyses in the running plan, by ID, which give
+     * the options folded into the keys.
+     */
+    private static final Map<String, AnalysisConfig> plan = new ConcurrentHashMap<>();
+
+    /**
+     * IDs of the analyses required by the analyses in the plan, by ID.
+     */
+    private static final Map<String, List<String>> requires = new ConcurrentHashMap<>();
+
+    /**
+     * Hashed strings of the analyses (with their requirements), by ID.
+     */
+    private static final Map<String, String> analysisKeys = new ConcurrentHashMap<>();
+
+    private final Path dir;
+
+    private final long maxBytes;
+
+    /**
+     * Sizes of the entries, in least-recently-used order.
+     */
+    private final LinkedHashMap<String, Long> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private ResultCache(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(dir);
+            try (Stream<Path> files = Files.list(dir)) {
+                files.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                        .sorted(Comparator.comparing(ResultCache::getLastModified))
+                        .forEach(f -> {
+                            long size = f.toFile().length();
+                            entries.put(getKey(f), size);
+                            totalBytes += size;
+                        });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open result cache " + dir, e);
+        }
+        logger.info("Result cache {}: {} entries, {} bytes",
+                dir, entries.size(), totalBytes);
+    }
+
+    /**
+     * @return the cache specified by the options of an analysis,
+     * or null if the analysis does not enable the cache.
+     */
+    @Nullable
+    public static ResultCache get(AnalysisOptions options) {
+        String dir = options.getString(CACHE_DIR);
+        if (dir == null) {
+            return null;
+        }
+        Object size = options.get(CACHE_SIZE);
+        long maxMB = size == null ? DEFAULT_CACHE_SIZE :
+                Long.parseLong(size.toString());
+        return caches.computeIfAbsent(Path.of(dir).toAbsolutePath(),
+                path -> new ResultCache(path, maxMB << 20));
+    }
+
+    /**
+     * Sets the analysis plan whose analyses use the caches. The keys of
+     * an analysis include the options of the analyses it requires in
+     * the plan.
+     *
+     * @param configs     the analyses in the plan.
+     * @param requiredIds the IDs of the analyses required by each analysis
+     *                    in the plan, whose conditions are resolved.
+     */
+    public static void setPlan(List<AnalysisConfig> configs,
+                               Map<String, List<String>> requiredIds) {
+        plan.clear();
+        requires.clear();
+        analysisKeys.clear();
+        configs.forEach(config -> plan.put(config.getId(), config));
+        requires.putAll(requiredIds);
+    }
+
+    /**
+     * @return the number of results loaded from this cache in this run.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the cached result of analysis on ir if present, otherwise
+     * computes the result by given supplier and caches it.
+     */
+    public <R> R computeIfAbsent(Analysis analysis, IR ir,
+                                 ResultCodec<R> codec, Supplier<R> supplier) {
+        String key = computeKey(analysis, ir);
+        R result = load(key, ir, codec);
+        if (result == null) {
+            result = supplier.get();
+            store(key, ir, codec, result);
+        }
+        return result;
+    }
+
+    @Nullable
+    private <R> R load(String key, IR ir, ResultCodec<R> codec) {
+        Path file = dir.resolve(key + SUFFIX);
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Bad magic number");
+            }
+            R result = codec.decode(ir, in);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return result;
+        } catch (IOException | RuntimeException e) {
+            // the entry is stale or corrupted, then recompute it
+            logger.warn("Failed to load cached result {}: {}", file, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    private <R> void store(String key, IR ir, ResultCodec<R> codec, R result) {
+        Path tmp = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            codec.encode(result, ir, out);
+            out.flush();
+            Path file = dir.resolve(key + SUFFIX);
+            // write to a temporary file first, so that readers (possibly
+            // in other runs) never see partially written entries
+            tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                // e.g., on file systems without atomic rename, a reader
+                // may see a partial entry, which fails to load and is
+                // recomputed
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            synchronized (this) {
+                Long old = entries.put(key, (long) bytes.size());
+                totalBytes += bytes.size() - (old == null ? 0 : old);
+                evict();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to cache result of {}: {}", ir.getMethod(), e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    // the temporary file remains only if the move fails
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete {}: {}", tmp, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts least recently used entries until the size bound is satisfied.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(dir.resolve(eldest.getKey() + SUFFIX));
+            } catch (IOException e) {
+                logger.warn("Failed to evict cached result {}: {}",
+                        eldest.getKey(), e);
+            }
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        try {
+            Files.deleteIfExists(dir.resolve(key + SUFFIX));
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * @return a stable hash of the analysis (ID, options and requirements)
+     * and the content of ir, which does not depend on object identities
+     * and thus is the same across runs for unchanged methods.
+     */
+    static String computeKey(Analysis analysis, IR ir) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        update(digest, analysisKeys.computeIfAbsent(analysis.getId(),
+                id -> getAnalysisKey(id, analysis.getOptions())));
+        update(digest, ir.getMethod().toString());
+        for (Var var : ir.getVars()) {
+            update(digest, var.getName() + ':' + var.getType());
+        }
+        update(digest, String.valueOf(ir.getThis()));
+        update(digest, ir.getParams().toString());
+        for (Stmt stmt : ir.getStmts()) {
+            update(digest, stmt.getIndex() + ":" + stmt);
+        }
+        List<ExceptionEntry> entries = ir.getExceptionEntries();
+        for (ExceptionEntry entry : entries) {
+            update(digest, entry.start().getIndex() + "-" +
+                    entry.end().getIndex() + ">" +
+                    entry.handler().getIndex() + ":" + entry.catchType());
+        }
+        // 128 bits are enough to avoid collisions
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    /**
+     * @return the string of the ID and options of an analysis, followed by
+     * those of the analyses it requires in the plan, recursively.
+     */
+    private static String getAnalysisKey(String id, AnalysisOptions options) {
+        StringBuilder key = new StringBuilder();
+        appendAnalysis(key, id, options);
+        Set<String> visited = new HashSet<>();
+        visited.add(id);
+        appendRequires(key, id, visited);
+        return key.toString();
+    }
+
+    private static void appendRequires(StringBuilder key, String id,
+                                       Set<String> visited) {
+        for (String required : requires.getOrDefault(id, List.of())) {
+            AnalysisConfig requiredConfig = plan.get(required);
+            if (requiredConfig != null && visited.add(required)) {
+                appendAnalysis(key, required, requiredConfig.getOptions());
+                appendRequires(key, required, visited);
+            }
+        }
+    }
+
+    private static void appendAnalysis(StringBuilder key, String id,
+                                       AnalysisOptions options) {
+        // options are sorted, so that the key does not depend on their order
+        Map<String, Object> sorted = new TreeMap<>(MAPPER.convertValue(
+                options, new TypeReference<Map<String, Object>>() {}));
+        sorted.keySet().removeAll(CACHE_OPTIONS);
+        key.append(id).append(sorted).append('\n');
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static String getKey(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - SUFFIX.length());
+    }
+
+    private static FileTime getLastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
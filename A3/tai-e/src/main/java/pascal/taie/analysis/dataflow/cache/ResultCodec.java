@@ -0,0 +1,50 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.cache;
+
+import pascal.taie.ir.IR;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes/decodes the result of a method analysis to/from
+ * the binary format stored by {@link ResultCache}.
+ *
+ * @param <R> type of the result
+ */
+public interface ResultCodec<R> {
+
+    /**
+     * Writes the result of analyzing ir to out.
+     */
+    void encode(R result, IR ir, DataOutput out) throws IOException;
+
+    /**
+     * Reads a result of analyzing ir from in.
+     * Objects in the result (e.g., variables and statements)
+     * are resolved against the given IR.
+     */
+    R decode(IR ir, DataInput in) throws IOException;
+}
@@ -0,0 +1,147 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+import static pascal.taie.util.collection.CollectionUtils.getOne;
+
+/**
+ * A read-only data-flow result of statements, which adapts the result
+ * computed on {@link BlockCFG}. Only the facts at the entries and exits
+ * of blocks are kept, and the facts of the statements inside blocks are
+ * recomputed lazily on query by the transfer function.
+ * <p>
+ * The facts of the most recently queried block are memoized,
+ * so that querying all statements of a block in order recomputes
+ * the block only once.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class BlockDataflowResult<Fact> extends DataflowResult<Stmt, Fact> {
+
+    private final DataflowAnalysis<Stmt, Fact> analysis;
+
+    private final BlockCFG cfg;
+
+    private final DataflowResult<BasicBlock, Fact> blockResult;
+
+    /**
+     * The memoized block, null if no block is memoized.
+     */
+    private BasicBlock memoBlock;
+
+    private final Map<Stmt, Fact> memoIn = Maps.newHybridMap();
+
+    private final Map<Stmt, Fact> memoOut = Maps.newHybridMap();
+
+    public BlockDataflowResult(DataflowAnalysis<Stmt, Fact> analysis, BlockCFG cfg,
+                               DataflowResult<BasicBlock, Fact> blockResult) {
+        super(0);
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.blockResult = blockResult;
+    }
+
+    @Override
+    public synchronized Fact getInFact(Stmt stmt) {
+        BasicBlock block = cfg.getBlockOf(stmt);
+        if (block == null) {
+            return null;
+        }
+        if (stmt == block.getFirstStmt()) {
+            return blockResult.getInFact(block);
+        }
+        recompute(block);
+        return memoIn.get(stmt);
+    }
+
+    @Override
+    public synchronized Fact getOutFact(Stmt stmt) {
+        BasicBlock block = cfg.getBlockOf(stmt);
+        if (block == null) {
+            return null;
+        }
+        if (stmt == block.getLastStmt()) {
+            return blockResult.getOutFact(block);
+        }
+        recompute(block);
+        return memoOut.get(stmt);
+    }
+
+    @Override
+    public void setInFact(Stmt stmt, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOutFact(Stmt stmt, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Recomputes the facts of the statements in given block
+     * (if it is not memoized).
+     */
+    private void recompute(BasicBlock block) {
+        if (block == memoBlock) {
+            return;
+        }
+        memoIn.clear();
+        memoOut.clear();
+        List<Stmt> stmts = block.getStmts();
+        if (analysis.isForward()) {
+            Fact fact = blockResult.getInFact(block);
+            for (Stmt stmt : stmts) {
+                Fact out = analysis.newInitialFact();
+                analysis.transferNode(stmt, fact, out);
+                memoIn.put(stmt, fact);
+                memoOut.put(stmt, out);
+                if (stmt != block.getLastStmt()) {
+                    Edge<Stmt> edge = getOne(cfg.getStmtCFG().getOutEdgesOf(stmt));
+                    fact = analysis.needTransferEdge(edge) ?
+                            analysis.transferEdge(edge, out) : out;
+                }
+            }
+        } else {
+            Fact fact = blockResult.getOutFact(block);
+            for (int i = stmts.size() - 1; i >= 0; --i) {
+                Stmt stmt = stmts.get(i);
+                Fact in = analysis.newInitialFact();
+                analysis.transferNode(stmt, in, fact);
+                memoIn.put(stmt, in);
+                memoOut.put(stmt, fact);
+                fact = in;
+            }
+        }
+        memoBlock = block;
+    }
+}
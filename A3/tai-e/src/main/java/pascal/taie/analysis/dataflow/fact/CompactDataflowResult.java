@@ -0,0 +1,245 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static pascal.taie.util.collection.CollectionUtils.getOne;
+
+/**
+ * A read-only data-flow result which keeps only the facts at the
+ * boundaries of straight-line blocks, and recomputes the facts of
+ * the other nodes lazily on query by the transfer function.
+ * <p>
+ * For forward analyses, only the IN facts of the first nodes of blocks
+ * are kept, and for backward analyses, only the OUT facts of the last
+ * nodes of blocks are kept. Both facts of the CFG entry and exit are kept.
+ * A node is in the same block as its predecessor if it is the only
+ * successor of its only predecessor, and no edge transfer is needed
+ * between them. All nodes are {@link Stmt}s, and the kept facts are
+ * stored in an array indexed by {@link Stmt#getIndex()}.
+ * <p>
+ * The facts of the most recently queried block are memoized,
+ * so that querying all nodes of a block in order recomputes
+ * the block only once.
+ *
+ * @param <Node> type of nodes, which must be {@link Stmt}
+ * @param <Fact> type of data-flow facts
+ */
+public class CompactDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final CFG<Node> cfg;
+
+    /**
+     * For each node (by index), the index of the node whose fact is kept
+     * and from which the facts of the node are recomputed, i.e., the
+     * first (last) node of its block in forward (backward) analyses.
+     */
+    private final int[] anchors;
+
+    /**
+     * Kept facts, indexed by the anchors.
+     */
+    private final Object[] anchorFacts;
+
+    private final Fact entryIn, entryOut, exitIn, exitOut;
+
+    /**
+     * Anchor of the memoized block, -1 if no block is memoized.
+     */
+    private int memoAnchor = -1;
+
+    private final Map<Node, Fact> memoIn = Maps.newHybridMap();
+
+    private final Map<Node, Fact> memoOut = Maps.newHybridMap();
+
+    /**
+     * Compacts given result of analysis on cfg.
+     */
+    public CompactDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                                 CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        super(0);
+        this.analysis = analysis;
+        this.cfg = cfg;
+        int size = cfg.getIR().getStmts().size() + 2;
+        anchors = new int[size];
+        Arrays.fill(anchors, -1);
+        anchorFacts = new Object[size];
+        boolean forward = analysis.isForward();
+        for (Node node : cfg) {
+            if (isAnchor(node, forward)) {
+                addBlock(node, result, forward);
+            }
+        }
+        // nodes on a cycle without any anchor, e.g., a goto self-loop
+        // unreachable from entry, are not assigned above, thus the first
+        // node found on each such cycle is taken as its anchor
+        for (Node node : cfg) {
+            if (anchors[index(node)] == -1) {
+                addBlock(node, result, forward);
+            }
+        }
+        entryIn = result.getInFact(cfg.getEntry());
+        entryOut = result.getOutFact(cfg.getEntry());
+        exitIn = result.getInFact(cfg.getExit());
+        exitOut = result.getOutFact(cfg.getExit());
+    }
+
+    /**
+     * Keeps the fact of given anchor, and assigns the anchor to
+     * the rest nodes of its block.
+     */
+    private void addBlock(Node anchor, DataflowResult<Node, Fact> result,
+                          boolean forward) {
+        int anchorIndex = index(anchor);
+        anchorFacts[anchorIndex] = forward ?
+                result.getInFact(anchor) : result.getOutFact(anchor);
+        Node member = anchor;
+        while (member != null) {
+            anchors[index(member)] = anchorIndex;
+            Node next = forward ? getOnlySucc(member) : getOnlyPred(member);
+            member = next == null || isAnchor(next, forward) ||
+                    anchors[index(next)] != -1 ? null : next;
+        }
+    }
+
+    /**
+     * @return true if the fact of given node is kept, i.e., the node
+     * does not belong to the block of its predecessor (successor)
+     * in forward (backward) analyses.
+     */
+    private boolean isAnchor(Node node, boolean forward) {
+        if (cfg.isEntry(node) || cfg.isExit(node)) {
+            return true;
+        }
+        Node prev = forward ? getOnlyPred(node) : getOnlySucc(node);
+        if (prev == null || cfg.isEntry(prev) || cfg.isExit(prev)) {
+            return true;
+        }
+        Node back = forward ? getOnlySucc(prev) : getOnlyPred(prev);
+        if (back != node) {
+            return true;
+        }
+        Edge<Node> edge = getOne(forward ? cfg.getInEdgesOf(node) : cfg.getOutEdgesOf(node));
+        return analysis.needTransferEdge(edge);
+    }
+
+    private Node getOnlySucc(Node node) {
+        return cfg.getOutDegreeOf(node) == 1 ? getOne(cfg.getSuccsOf(node)) : null;
+    }
+
+    private Node getOnlyPred(Node node) {
+        return cfg.getInDegreeOf(node) == 1 ? getOne(cfg.getPredsOf(node)) : null;
+    }
+
+    private int index(Node node) {
+        return ((Stmt) node).getIndex();
+    }
+
+    @Override
+    public synchronized Fact getInFact(Node node) {
+        if (cfg.isEntry(node)) {
+            return entryIn;
+        }
+        if (cfg.isExit(node)) {
+            return exitIn;
+        }
+        return recompute(node) ? memoIn.get(node) : null;
+    }
+
+    @Override
+    public synchronized Fact getOutFact(Node node) {
+        if (cfg.isEntry(node)) {
+            return entryOut;
+        }
+        if (cfg.isExit(node)) {
+            return exitOut;
+        }
+        return recompute(node) ? memoOut.get(node) : null;
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Recomputes the facts of the block containing given node
+     * (if it is not memoized).
+     *
+     * @return false if given node is not in the CFG, otherwise true.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean recompute(Node node) {
+        int index = index(node);
+        if (index < 0 || index >= anchors.length || anchors[index] == -1) {
+            return false;
+        }
+        int anchorIndex = anchors[index];
+        if (anchorIndex == memoAnchor) {
+            return true;
+        }
+        memoIn.clear();
+        memoOut.clear();
+        boolean forward = analysis.isForward();
+        Fact fact = (Fact) anchorFacts[anchorIndex];
+        // the anchor is the first (last) node of the block, which can be
+        // found from any node of the block by walking backward (forward)
+        Node current = node;
+        while (index(current) != anchorIndex) {
+            current = forward ? getOnlyPred(current) : getOnlySucc(current);
+        }
+        // the walk stops when it returns to the anchor of a cycle
+        while (current != null && anchors[index(current)] == anchorIndex
+                && !memoIn.containsKey(current)) {
+            Fact other = analysis.newInitialFact();
+            if (forward) {
+                analysis.transferNode(current, fact, other);
+                memoIn.put(current, fact);
+                memoOut.put(current, other);
+            } else {
+                analysis.transferNode(current, other, fact);
+                memoIn.put(current, other);
+                memoOut.put(current, fact);
+            }
+            fact = other;
+            current = forward ? getOnlySucc(current) : getOnlyPred(current);
+        }
+        memoAnchor = anchorIndex;
+        return true;
+    }
+}
@@ -22,34 +22,70 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
+import pascal.taie.ir.stmt.Stmt;
+
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * An object which manages the data-flow facts associated with nodes.
+ * <p>
+ * By default, the facts are kept in hash maps. For CFGs of statements,
+ * {@link #DataflowResult(int)} creates a result which keeps the facts
+ * in arrays indexed by {@link Stmt#getIndex()}, which is more compact.
  *
  * @param <Node> type of nodes
  * @param <Fact> type of data-flow facts
  */
 public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> inFacts;
+
+    private final Map<Node, Fact> outFacts;
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    /**
+     * Array-indexed storage of IN facts, only used when nodes are {@link Stmt}s.
+     */
+    private final Object[] inArray;
+
+    /**
+     * Array-indexed storage of OUT facts, only used when nodes are {@link Stmt}s.
+     */
+    private final Object[] outArray;
+
+    public DataflowResult() {
+        inFacts = new LinkedHashMap<>();
+        outFacts = new LinkedHashMap<>();
+        inArray = outArray = null;
+    }
+
+    /**
+     * Creates a data-flow result whose nodes are {@link Stmt}s with
+     * indexes in [0, size), and the facts are kept in arrays.
+     */
+    public DataflowResult(int size) {
+        inFacts = outFacts = null;
+        inArray = new Object[size];
+        outArray = new Object[size];
+    }
 
     /**
      * @return the flowing-in fact of given node.
      */
     @Override
     public Fact getInFact(Node node) {
-        return inFacts.get(node);
+        return inArray == null ? inFacts.get(node) : get(inArray, node);
     }
 
     /**
      * Associates a data-flow fact with a node as its flowing-in fact.
      */
     public void setInFact(Node node, Fact fact) {
-        inFacts.put(node, fact);
+        if (inArray == null) {
+            inFacts.put(node, fact);
+        } else {
+            inArray[((Stmt) node).getIndex()] = fact;
+        }
     }
 
     /**
@@ -57,13 +93,23 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
      */
     @Override
     public Fact getOutFact(Node node) {
-        return outFacts.get(node);
+        return outArray == null ? outFacts.get(node) : get(outArray, node);
     }
 
     /**
      * Associates a data-flow fact with a node as its flowing-out fact.
      */
     public void setOutFact(Node node, Fact fact) {
-        outFacts.put(node, fact);
+        if (outArray == null) {
+            outFacts.put(node, fact);
+        } else {
+            outArray[((Stmt) node).getIndex()] = fact;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact get(Object[] facts, Node node) {
+        int index = ((Stmt) node).getIndex();
+        return index >= 0 && index < facts.length ? (Fact) facts[index] : null;
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.BlockDataflowResult;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+import static pascal.taie.util.collection.CollectionUtils.getOne;
+
+/**
+ * Solves a statement-level data-flow analysis on {@link BlockCFG}.
+ * The analysis is lifted to blocks, so that the underlying solver
+ * transfers facts through a whole block in one step, and only keeps
+ * the facts at the entries and exits of blocks.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class BlockSolver<Fact> {
+
+    private final DataflowAnalysis<Stmt, Fact> analysis;
+
+    public BlockSolver(DataflowAnalysis<Stmt, Fact> analysis) {
+        this.analysis = analysis;
+    }
+
+    /**
+     * Starts this solver on the given CFG.
+     *
+     * @return the analysis result, which answers queries of the facts
+     * of each statement, see {@link BlockDataflowResult}.
+     */
+    public DataflowResult<Stmt, Fact> solve(BlockCFG cfg) {
+        DataflowResult<BasicBlock, Fact> result = Solver
+                .makeSolver(new BlockAnalysis<>(analysis, cfg))
+                .solve(cfg);
+        return new BlockDataflowResult<>(analysis, cfg, result);
+    }
+
+    /**
+     * Lifts a statement-level analysis to basic blocks.
+     */
+    private static class BlockAnalysis<Fact>
+            implements DataflowAnalysis<BasicBlock, Fact> {
+
+        private final DataflowAnalysis<Stmt, Fact> analysis;
+
+        private final BlockCFG cfg;
+
+        private BlockAnalysis(DataflowAnalysis<Stmt, Fact> analysis, BlockCFG cfg) {
+            this.analysis = analysis;
+            this.cfg = cfg;
+        }
+
+        @Override
+        public boolean isForward() {
+            return analysis.isForward();
+        }
+
+        @Override
+        public Fact newBoundaryFact(CFG<BasicBlock> cfg) {
+            return analysis.newBoundaryFact(this.cfg.getStmtCFG());
+        }
+
+        @Override
+        public Fact newInitialFact() {
+            return analysis.newInitialFact();
+        }
+
+        @Override
+        public void meetInto(Fact fact, Fact target) {
+            analysis.meetInto(fact, target);
+        }
+
+        /**
+         * Transfers the fact through all statements of the block,
+         * and the facts between the statements are discarded.
+         */
+        @Override
+        public boolean transferNode(BasicBlock block, Fact in, Fact out) {
+            List<Stmt> stmts = block.getStmts();
+            int last = stmts.size() - 1;
+            if (analysis.isForward()) {
+                Fact fact = in;
+                for (int i = 0; i < last; ++i) {
+                    Stmt stmt = stmts.get(i);
+                    Fact next = analysis.newInitialFact();
+                    analysis.transferNode(stmt, fact, next);
+                    Edge<Stmt> edge = getOne(cfg.getStmtCFG().getOutEdgesOf(stmt));
+                    fact = analysis.needTransferEdge(edge) ?
+                            analysis.transferEdge(edge, next) : next;
+                }
+                return analysis.transferNode(stmts.get(last), fact, out);
+            } else {
+                Fact fact = out;
+                for (int i = last; i > 0; --i) {
+                    Fact prev = analysis.newInitialFact();
+                    analysis.transferNode(stmts.get(i), prev, fact);
+                    fact = prev;
+                }
+                return analysis.transferNode(stmts.get(0), in, fact);
+            }
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<BasicBlock> edge) {
+            return analysis.needTransferEdge(cfg.getStmtEdge(edge));
+        }
+
+        @Override
+        public Fact transferEdge(Edge<BasicBlock> edge, Fact nodeFact) {
+            return analysis.transferEdge(cfg.getStmtEdge(edge), nodeFact);
+        }
+
+        @Override
+        public boolean needWidening() {
+            return analysis.needWidening();
+        }
+
+        @Override
+        public boolean widenInto(Fact fact, Fact target) {
+            return analysis.widenInto(fact, target);
+        }
+
+        @Override
+        public boolean narrowInto(Fact fact, Fact target) {
+            return analysis.narrowInto(fact, target);
+        }
+    }
+}
@@ -25,6 +25,13 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -67,7 +74,11 @@ public abstract class Solver<Node, Fact> {
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        // facts of stmt nodes are kept in arrays indexed by Stmt.getIndex(),
+        // where entry and exit are numbered after all stmts of IR
+        DataflowResult<Node, Fact> result = cfg.getEntry() instanceof Stmt ?
+                new DataflowResult<>(cfg.getIR().getStmts().size() + 2) :
+                new DataflowResult<>();
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -118,4 +129,46 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Computes loop heads of given CFG, i.e., the targets of back edges
+     * found by depth-first search. The search starts from the entry, and
+     * then from the nodes unreachable from the entry, so that every cycle
+     * of the CFG contains at least one loop head.
+     */
+    protected static <Node> Set<Node> computeLoopHeads(CFG<Node> cfg) {
+        Set<Node> loopHeads = Sets.newHybridSet();
+        Set<Node> visited = Sets.newSet(cfg.getNumberOfNodes());
+        Set<Node> onStack = Sets.newSet();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succIters = new ArrayDeque<>();
+        Deque<Node> roots = new ArrayDeque<>();
+        roots.add(cfg.getEntry());
+        roots.addAll(cfg.getNodes());
+        for (Node root : roots) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            stack.push(root);
+            onStack.add(root);
+            succIters.push(cfg.getSuccsOf(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Node> succs = succIters.peek();
+                if (succs.hasNext()) {
+                    Node succ = succs.next();
+                    if (onStack.contains(succ)) {
+                        loopHeads.add(succ);
+                    } else if (visited.add(succ)) {
+                        stack.push(succ);
+                        onStack.add(succ);
+                        succIters.push(cfg.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    onStack.remove(stack.pop());
+                    succIters.pop();
+                }
+            }
+        }
+        return loopHeads;
+    }
 }
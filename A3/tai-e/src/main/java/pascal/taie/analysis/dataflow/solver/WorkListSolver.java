@@ -25,9 +25,11 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
 
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.Set;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -39,13 +41,53 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
         //Queue<Node> workList = new LinkedList<>(cfg.getSuccsOf(cfg.getEntry()));
+        // OUT fact of entry is the boundary fact, which is never transferred
+        Set<Node> loopHeads = analysis.needWidening() ?
+                computeLoopHeads(cfg) : Set.of();
         Queue<Node> workList = new LinkedList<>(cfg.getNodes());
+        workList.remove(cfg.getEntry());
         while(!workList.isEmpty()) {
             Node node = workList.poll();
             Fact in_fact = result.getInFact(node);
-            for(Node pred : cfg.getPredsOf(node)) {
-                Fact pred_out_fact = result.getOutFact(pred);
-                analysis.meetInto(pred_out_fact, in_fact);
+            if (loopHeads.contains(node)) {
+                analysis.widenInto(meetInEdges(cfg, node, result), in_fact);
+            } else {
+                for(Edge<Node> edge : cfg.getInEdgesOf(node)) {
+                    analysis.meetInto(getEdgeFact(edge, result), in_fact);
+                }
+            }
+            Fact out_fact = result.getOutFact(node);
+            if(analysis.transferNode(node, in_fact, out_fact)) {
+                for(Node succ : cfg.getSuccsOf(node)) {
+                    if(!workList.contains(succ)) {
+                        workList.add(succ);
+                    }
+                }
+            }
+        }
+        if (!loopHeads.isEmpty()) {
+            narrowForward(cfg, result, loopHeads);
+        }
+    }
+
+    /**
+     * Descending iterations from the fixed point reached by widening.
+     * IN facts of loop heads are narrowed, and IN facts of other nodes
+     * are recomputed from their predecessors, so every iteration keeps
+     * the facts sound while (possibly) making them more precise.
+     */
+    private void narrowForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               Set<Node> loopHeads) {
+        Queue<Node> workList = new LinkedList<>(cfg.getNodes());
+        workList.remove(cfg.getEntry());
+        while(!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in_fact = meetInEdges(cfg, node, result);
+            if (loopHeads.contains(node)) {
+                analysis.narrowInto(in_fact, result.getInFact(node));
+                in_fact = result.getInFact(node);
+            } else {
+                result.setInFact(node, in_fact);
             }
             Fact out_fact = result.getOutFact(node);
             if(analysis.transferNode(node, in_fact, out_fact)) {
@@ -58,6 +100,29 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         }
     }
 
+    /**
+     * @return a new fact which meets the facts flowing in along
+     * all in edges of given node.
+     */
+    private Fact meetInEdges(CFG<Node> cfg, Node node,
+                             DataflowResult<Node, Fact> result) {
+        Fact fact = analysis.newInitialFact();
+        for(Edge<Node> edge : cfg.getInEdgesOf(node)) {
+            analysis.meetInto(getEdgeFact(edge, result), fact);
+        }
+        return fact;
+    }
+
+    /**
+     * @return the fact flowing along given edge, i.e., the OUT fact
+     * of its source, transferred by the edge if needed.
+     */
+    private Fact getEdgeFact(Edge<Node> edge, DataflowResult<Node, Fact> result) {
+        Fact fact = result.getOutFact(edge.getSource());
+        return analysis.needTransferEdge(edge) ?
+                analysis.transferEdge(edge, fact) : fact;
+    }
+
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
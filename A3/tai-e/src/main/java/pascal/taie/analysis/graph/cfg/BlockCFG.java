@@ -0,0 +1,190 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Views;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Control-flow graph whose nodes are {@link BasicBlock}s, built from
+ * a statement-level CFG by {@link BlockCFGBuilder}.
+ * <p>
+ * The entry and exit of the statement-level CFG form the entry and exit
+ * blocks by themselves, and every statement of the statement-level CFG
+ * belongs to exactly one block.
+ */
+public class BlockCFG implements CFG<BasicBlock> {
+
+    private final CFG<Stmt> stmtCFG;
+
+    private final List<BasicBlock> blocks = new ArrayList<>();
+
+    private final Set<BasicBlock> nodes = new LinkedHashSet<>();
+
+    /**
+     * Maps statement (by index) to the block containing it.
+     */
+    private final BasicBlock[] stmt2Block;
+
+    private final MultiMap<BasicBlock, Edge<BasicBlock>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<BasicBlock, Edge<BasicBlock>> outEdges = Maps.newMultiMap();
+
+    private BasicBlock entry;
+
+    private BasicBlock exit;
+
+    BlockCFG(CFG<Stmt> stmtCFG) {
+        this.stmtCFG = stmtCFG;
+        // entry and exit are numbered after all stmts of IR
+        this.stmt2Block = new BasicBlock[stmtCFG.getIR().getStmts().size() + 2];
+    }
+
+    BasicBlock addBlock(List<Stmt> stmts) {
+        BasicBlock block = new BasicBlock(blocks.size(), stmts);
+        blocks.add(block);
+        nodes.add(block);
+        stmts.forEach(stmt -> stmt2Block[stmt.getIndex()] = block);
+        return block;
+    }
+
+    void addEdge(Edge<BasicBlock> edge) {
+        outEdges.put(edge.getSource(), edge);
+        inEdges.put(edge.getTarget(), edge);
+    }
+
+    void setEntry(BasicBlock entry) {
+        this.entry = entry;
+    }
+
+    void setExit(BasicBlock exit) {
+        this.exit = exit;
+    }
+
+    /**
+     * @return the statement-level CFG this CFG is built from.
+     */
+    public CFG<Stmt> getStmtCFG() {
+        return stmtCFG;
+    }
+
+    /**
+     * @return the block containing given statement, or null if the
+     * statement is not in this CFG.
+     */
+    public BasicBlock getBlockOf(Stmt stmt) {
+        int index = stmt.getIndex();
+        return index >= 0 && index < stmt2Block.length ?
+                stmt2Block[index] : null;
+    }
+
+    /**
+     * @return the statement-level edge which given block edge is lifted from.
+     */
+    @SuppressWarnings("unchecked")
+    public Edge<Stmt> getStmtEdge(Edge<BasicBlock> edge) {
+        return (Edge<Stmt>) ((BlockEdge) edge).getStmtEdge();
+    }
+
+    /**
+     * @return all blocks of this CFG, ordered by their indexes.
+     */
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    @Override
+    public IR getIR() {
+        return stmtCFG.getIR();
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return stmtCFG.getMethod();
+    }
+
+    @Override
+    public BasicBlock getEntry() {
+        return entry;
+    }
+
+    @Override
+    public BasicBlock getExit() {
+        return exit;
+    }
+
+    @Override
+    public boolean isEntry(BasicBlock node) {
+        return node == entry;
+    }
+
+    @Override
+    public boolean isExit(BasicBlock node) {
+        return node == exit;
+    }
+
+    @Override
+    public boolean hasNode(BasicBlock node) {
+        return nodes.contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(BasicBlock source, BasicBlock target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<BasicBlock> getPredsOf(BasicBlock node) {
+        return Views.toMappedSet(getInEdgesOf(node), Edge::getSource);
+    }
+
+    @Override
+    public Set<BasicBlock> getSuccsOf(BasicBlock node) {
+        return Views.toMappedSet(getOutEdgesOf(node), Edge::getTarget);
+    }
+
+    @Override
+    public Set<Edge<BasicBlock>> getInEdgesOf(BasicBlock node) {
+        return inEdges.get(node);
+    }
+
+    @Override
+    public Set<Edge<BasicBlock>> getOutEdgesOf(BasicBlock node) {
+        return outEdges.get(node);
+    }
+
+    @Override
+    public Set<BasicBlock> getNodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static pascal.taie.util.collection.CollectionUtils.getOne;
+
+/**
+ * Builds {@link BlockCFG} from the statement-level CFG of a method.
+ */
+public class BlockCFGBuilder extends MethodAnalysis {
+
+    public static final String ID = "bcfg";
+
+    public BlockCFGBuilder(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public BlockCFG analyze(IR ir) {
+        return build(ir.getResult(CFGBuilder.ID));
+    }
+
+    /**
+     * Builds the basic-block CFG of given statement-level CFG.
+     */
+    public static BlockCFG build(CFG<Stmt> cfg) {
+        BlockCFG blockCFG = new BlockCFG(cfg);
+        blockCFG.setEntry(blockCFG.addBlock(List.of(cfg.getEntry())));
+        // add blocks in the order of their first statements
+        for (Stmt stmt : cfg.getIR()) {
+            if (cfg.hasNode(stmt) && isLeader(cfg, stmt)) {
+                addBlock(blockCFG, cfg, stmt);
+            }
+        }
+        // statements on cycles without any leader (i.e., unreachable
+        // from other statements) are still not in any block
+        for (Stmt stmt : cfg.getIR()) {
+            if (cfg.hasNode(stmt) && blockCFG.getBlockOf(stmt) == null) {
+                addBlock(blockCFG, cfg, stmt);
+            }
+        }
+        blockCFG.setExit(blockCFG.addBlock(List.of(cfg.getExit())));
+        // lift the edges which leave blocks
+        for (BasicBlock block : blockCFG) {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(block.getLastStmt())) {
+                blockCFG.addEdge(new BlockEdge(edge, block,
+                        blockCFG.getBlockOf(edge.getTarget())));
+            }
+        }
+        return blockCFG;
+    }
+
+    /**
+     * Adds the block starting at given statement, which extends until
+     * the next leader or the statement already in a block.
+     */
+    private static void addBlock(BlockCFG blockCFG, CFG<Stmt> cfg, Stmt start) {
+        List<Stmt> stmts = new ArrayList<>();
+        Stmt member = start;
+        while (member != null) {
+            stmts.add(member);
+            Stmt next = getOnlySucc(cfg, member);
+            member = next == null || next == start || isLeader(cfg, next)
+                    || blockCFG.getBlockOf(next) != null ? null : next;
+        }
+        blockCFG.addBlock(stmts);
+    }
+
+    /**
+     * @return true if given statement starts a block, i.e., it is not
+     * the only successor of its only predecessor. The entry and exit
+     * form blocks by themselves.
+     */
+    private static boolean isLeader(CFG<Stmt> cfg, Stmt stmt) {
+        if (cfg.isEntry(stmt) || cfg.isExit(stmt)
+                || cfg.getInDegreeOf(stmt) != 1) {
+            return true;
+        }
+        Stmt pred = getOne(cfg.getPredsOf(stmt));
+        return cfg.isEntry(pred) || getOnlySucc(cfg, pred) != stmt;
+    }
+
+    private static Stmt getOnlySucc(CFG<Stmt> cfg, Stmt stmt) {
+        return cfg.getOutDegreeOf(stmt) == 1 ? getOne(cfg.getSuccsOf(stmt)) : null;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.language.type.ClassType;
+
+import java.util.Set;
+
+/**
+ * Edge between basic blocks, which is lifted from the edge between
+ * the last statement of its source and the first statement of its target.
+ * All properties of the edge are taken from the statement edge.
+ */
+class BlockEdge extends Edge<BasicBlock> {
+
+    private final Edge<?> stmtEdge;
+
+    BlockEdge(Edge<?> stmtEdge, BasicBlock source, BasicBlock target) {
+        super(stmtEdge.getKind(), source, target);
+        this.stmtEdge = stmtEdge;
+    }
+
+    Edge<?> getStmtEdge() {
+        return stmtEdge;
+    }
+
+    @Override
+    public int getCaseValue() {
+        return stmtEdge.getCaseValue();
+    }
+
+    @Override
+    public Set<ClassType> getExceptions() {
+        return stmtEdge.getExceptions();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return stmtEdge.equals(((BlockEdge) o).stmtEdge);
+    }
+
+    @Override
+    public int hashCode() {
+        return stmtEdge.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + getKind() + "]: " + source + " -> " + target;
+    }
+}
@@ -24,6 +24,16 @@ package pascal.taie.analysis.dataflow.analysis;
 
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.cache.ResultCache;
+import pascal.taie.config.AnalysisOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class DeadCodeTest {
 
@@ -34,6 +44,25 @@ public class DeadCodeTest {
                 "-a", "constprop=edge-refine:false");
     }
 
+    void testFusedDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "fused:true");
+    }
+
+    void testCompactDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;compact:true",
+                "-a", "constprop=edge-refine:false;compact:true");
+    }
+
+    void testBlockDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;block-cfg:true",
+                "-a", "constprop=edge-refine:false;block-cfg:true");
+    }
+
     @Test
     public void testControlFlowUnreachable() {
         testDCD("ControlFlowUnreachable");
@@ -58,4 +87,74 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testFusedUnreachableIfBranch() {
+        testFusedDCD("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testFusedUnreachableSwitchBranch() {
+        testFusedDCD("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testFusedLoops() {
+        testFusedDCD("Loops");
+    }
+
+    @Test
+    public void testFusedDeadAssignment() {
+        testFusedDCD("DeadAssignment");
+    }
+
+    @Test
+    public void testCachedDeadAssignment() throws IOException {
+        Path dir = Files.createTempDirectory("result-cache");
+        String cache = "cache-dir:" + dir;
+        ResultCache resultCache = ResultCache.get(
+                new AnalysisOptions(Map.of("cache-dir", dir.toString())));
+        // the first run fills the cache, and the second run reuses
+        // the results cached by the first run
+        long[] hits = new long[2];
+        for (int i = 0; i < 2; ++i) {
+            Tests.test("DeadAssignment", "src/test/resources/dataflow/deadcode/",
+                    DeadCodeDetection.ID, cache,
+                    "-a", "livevar=strongly:false;" + cache,
+                    "-a", "constprop=edge-refine:false;" + cache);
+            hits[i] = resultCache.getHits();
+        }
+        assertEquals(0, hits[0]);
+        assertTrue(hits[1] > 0);
+    }
+
+    @Test
+    public void testCompactUnreachableSwitchBranch() {
+        testCompactDCD("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testCompactDeadAssignment() {
+        testCompactDCD("DeadAssignment");
+    }
+
+    @Test
+    public void testCompactLoops() {
+        testCompactDCD("Loops");
+    }
+
+    @Test
+    public void testBlockUnreachableIfBranch() {
+        testBlockDCD("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testBlockLoops() {
+        testBlockDCD("Loops");
+    }
+
+    @Test
+    public void testBlockDeadAssignment() {
+        testBlockDCD("DeadAssignment");
+    }
 }
@@ -0,0 +1,10 @@
+class Narrowing {
+
+    int count() {
+        int x = 0;
+        for (int i = 0; i < 100; i++) {
+            x = i;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,20 @@
+class Overflow {
+
+    int add() {
+        int x = 2147483600;
+        int y = x + 100;
+        return y;
+    }
+
+    int mul() {
+        int x = 65536;
+        int y = x * x;
+        return y;
+    }
+
+    int noOverflow() {
+        int x = 46340;
+        int y = x * x;
+        return y;
+    }
+}
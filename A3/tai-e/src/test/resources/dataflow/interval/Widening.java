@@ -0,0 +1,10 @@
+class Widening {
+
+    int count(int n) {
+        int x = 0;
+        for (int i = 0; i < n; i++) {
+            x = i;
+        }
+        return x;
+    }
+}
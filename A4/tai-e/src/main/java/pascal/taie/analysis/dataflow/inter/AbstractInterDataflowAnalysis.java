@@ -34,6 +34,8 @@ import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
 
+import java.util.Set;
+
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
  *
@@ -49,6 +51,11 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     protected InterSolver<Method, Node, Fact> solver;
 
+    /**
+     * Result of the last run, which is reused by {@link #reanalyze(Set)}.
+     */
+    private DataflowResult<Node, Fact> lastResult;
+
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
     }
@@ -119,11 +126,56 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     @Override
     public Object analyze() {
+        return solve();
+    }
+
+    /**
+     * Solves the analysis on the current ICFG from scratch.
+     */
+    private DataflowResult<Node, Fact> solve() {
+        icfg = World.get().getResult(ICFGBuilder.ID);
+        initialize();
+        DataflowResult<Node, Fact> result;
+        if (isParallel()) {
+            Object threads = getOptions().get("threads");
+            result = new ParallelInterSolver<>(this, icfg, threads == null
+                    ? Runtime.getRuntime().availableProcessors()
+                    : Integer.parseInt(threads.toString())).solve();
+        } else {
+            solver = new InterSolver<>(this, icfg);
+            result = solver.solve();
+        }
+        finish();
+        lastResult = result;
+        return result;
+    }
+
+    private boolean isParallel() {
+        return getOptions().getBooleanOrDefault("parallel", false);
+    }
+
+    /**
+     * Re-analyzes the program after the IR of given methods changed.
+     * The client code should rebuild the ICFG before calling this method,
+     * and the facts of the nodes which do not depend on the changed methods
+     * are reused from the last run. In parallel mode, the facts are
+     * not reused, and the program is solved from scratch.
+     *
+     * @return the new result, which is identical to the result of
+     * {@link #analyze()} on the current ICFG.
+     */
+    public DataflowResult<Node, Fact> reanalyze(Set<Method> changedMethods) {
+        if (lastResult == null || isParallel()) {
+            return solve();
+        }
+        ICFG<Method, Node> oldICFG = icfg;
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
         solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        DataflowResult<Node, Fact> result = solver.solveIncrementally(
+                oldICFG, lastResult, changedMethods);
         finish();
+        lastResult = result;
         return result;
     }
 }
@@ -22,13 +22,16 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
@@ -40,6 +43,7 @@ import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Implementation of interprocedural constant propagation for int values.
@@ -51,9 +55,47 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Whether the analysis is solved by {@link SummarySolver}.
+     */
+    private final boolean summary;
+
+    /**
+     * Maximum number of summaries of each method.
+     */
+    private final int summaryLimit;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        summary = getOptions().getBooleanOrDefault("summary", false);
+        Object limit = getOptions().get("summary-limit");
+        summaryLimit = limit == null ? 16 : Integer.parseInt(limit.toString());
+    }
+
+    @Override
+    public Object analyze() {
+        if (summary) {
+            return solveSummaries();
+        }
+        return super.analyze();
+    }
+
+    /**
+     * In summary mode, the summaries of the last run are not reused,
+     * and the program is solved from scratch.
+     */
+    @Override
+    public DataflowResult<Stmt, CPFact> reanalyze(Set<JMethod> changedMethods) {
+        if (summary) {
+            return solveSummaries();
+        }
+        return super.reanalyze(changedMethods);
+    }
+
+    private DataflowResult<Stmt, CPFact> solveSummaries() {
+        icfg = World.get().getResult(ICFGBuilder.ID);
+        return new SummarySolver(cp, icfg, summaryLimit).solve();
     }
 
     @Override
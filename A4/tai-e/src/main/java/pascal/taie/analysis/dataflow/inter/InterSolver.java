@@ -24,10 +24,12 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -47,24 +49,113 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    /**
+     * If the ICFG is lazy, methods are initialized when they are reached,
+     * so that the ICFG only builds the edges of reached methods.
+     */
+    private final boolean lazy;
+
+    private final Set<Method> reachedMethods = Sets.newSet();
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.lazy = icfg instanceof LazyICFG;
     }
 
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
+        workList = lazy ? InterWorkList.empty() : InterWorkList.of(icfg);
         initialize();
         doSolve();
         return result;
     }
 
+    /**
+     * Re-solves the analysis after the given methods changed, reusing
+     * the result of the previous run on the old ICFG. Only the facts
+     * of the nodes reachable from the changed methods, in either the old
+     * or this ICFG, are recomputed, and the other facts are reused as
+     * they do not depend on the changed methods. The nodes absent in the
+     * old ICFG are treated as changed. The result is identical to the
+     * one solved from scratch.
+     */
+    DataflowResult<Node, Fact> solveIncrementally(
+            ICFG<Method, Node> oldICFG, DataflowResult<Node, Fact> oldResult,
+            Set<Method> changedMethods) {
+        result = new DataflowResult<>();
+        workList = lazy ? InterWorkList.empty() : InterWorkList.of(icfg);
+        Set<Node> roots = Sets.newSet();
+        Set<Node> oldRoots = Sets.newSet();
+        for (Method method : changedMethods) {
+            roots.addAll(icfg.getNodesOf(method));
+            oldRoots.addAll(oldICFG.getNodesOf(method));
+        }
+        for (Node node : icfg.getNodes()) {
+            if (oldResult.getInFact(node) == null) {
+                roots.add(node);
+            }
+        }
+        Set<Node> affected = getReachable(icfg, roots);
+        getReachable(oldICFG, oldRoots)
+                .stream()
+                .filter(icfg::hasNode)
+                .forEach(affected::add);
+        for (Node node : icfg.getNodes()) {
+            if (affected.contains(node)) {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+                workList.add(node);
+            } else {
+                result.setInFact(node, oldResult.getInFact(node));
+                result.setOutFact(node, oldResult.getOutFact(node));
+            }
+        }
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            if (affected.contains(entry)) {
+                result.setInFact(entry, analysis.newBoundaryFact(entry));
+                result.setOutFact(entry, analysis.newBoundaryFact(entry));
+            }
+        });
+        doSolve();
+        return result;
+    }
+
+    /**
+     * @return the nodes reachable from given roots in given ICFG,
+     * including the roots.
+     */
+    private static <Method, Node> Set<Node> getReachable(
+            ICFG<Method, Node> icfg, Set<Node> roots) {
+        Set<Node> reachable = Sets.newSet(roots.size());
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node root : roots) {
+            if (reachable.add(root)) {
+                queue.add(root);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (Node succ : icfg.getSuccsOf(queue.poll())) {
+                if (reachable.add(succ)) {
+                    queue.add(succ);
+                }
+            }
+        }
+        return reachable;
+    }
+
     private void initialize() {
         // TODO - finish me
-        for(Node node : icfg.getNodes()) {
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+        if (lazy) {
+            icfg.entryMethods().forEach(this::reach);
+        } else {
+            for(Node node : icfg.getNodes()) {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+            workList.addAll(icfg.getNodes());
         }
         // Why may have multiple entry methods?
         icfg.entryMethods().forEach(method -> {
@@ -76,22 +167,44 @@ class InterSolver<Method, Node, Fact> {
 
     private void doSolve() {
         // TODO - finish me
-        workList = new LinkedList<>(icfg.getNodes());
         while(!workList.isEmpty()) {
             Node node = workList.poll();
+            if (lazy && result.getInFact(node) == null) {
+                reach(icfg.getContainingMethodOf(node));
+            }
             Fact in_fact = result.getInFact(node);
             icfg.getInEdgesOf(node).forEach(edge -> {
                 Fact pred_out_fact = result.getOutFact(edge.getSource());
+                if (pred_out_fact == null) {
+                    // the predecessor is in a method not reached yet,
+                    // and node will be revisited when it is reached
+                    return;
+                }
                 Fact edgeTransfer = analysis.transferEdge(edge, pred_out_fact);
                 analysis.meetInto(edgeTransfer, in_fact);
             });
             Fact out_fact = result.getOutFact(node);
             if(analysis.transferNode(node, in_fact, out_fact)) {
-                for(Node succ : icfg.getSuccsOf(node)) {
-                    if(!workList.contains(succ)) {
-                        workList.add(succ);
-                    }
-                }
+                workList.addAll(icfg.getSuccsOf(node));
+            }
+        }
+    }
+
+    /**
+     * Initializes the facts of the nodes of given method, and adds
+     * the nodes and their successors to the work-list, if the method
+     * has not been reached.
+     */
+    private void reach(Method method) {
+        if (reachedMethods.add(method)) {
+            Set<Node> nodes = icfg.getNodesOf(method);
+            for (Node node : nodes) {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+            workList.addAll(nodes);
+            for (Node node : nodes) {
+                workList.addAll(icfg.getSuccsOf(node));
             }
         }
     }
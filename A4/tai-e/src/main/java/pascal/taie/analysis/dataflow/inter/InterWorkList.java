@@ -0,0 +1,247 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Work-list of ICFG nodes without duplicates. Each node is numbered by
+ * its priority, so that membership is a bit test, and the nodes are
+ * polled in the order of priorities: callers before callees, and nodes
+ * of a method in reverse post-order. Polling resumes from the last polled
+ * priority and wraps around, i.e., the work-list sweeps the ICFG in
+ * passes, which is the usual iteration order for data-flow analysis.
+ *
+ * @param <Node> type of ICFG nodes
+ */
+class InterWorkList<Node> extends AbstractQueue<Node> {
+
+    private final Map<Node, Integer> priorities;
+
+    private Object[] nodes;
+
+    private final BitSet pending = new BitSet();
+
+    private int cursor = 0;
+
+    private int size = 0;
+
+    private InterWorkList(List<Node> order) {
+        priorities = Maps.newMap(order.size());
+        nodes = new Object[order.size()];
+        order.forEach(this::getPriority);
+    }
+
+    /**
+     * Creates an empty work-list which orders the nodes by the order
+     * they are first added.
+     */
+    static <Node> InterWorkList<Node> empty() {
+        return new InterWorkList<>(List.of());
+    }
+
+    /**
+     * Creates an empty work-list which orders the nodes of given ICFG.
+     */
+    static <Method, Node> InterWorkList<Node> of(ICFG<Method, Node> icfg) {
+        return new InterWorkList<>(computeOrder(icfg));
+    }
+
+    private int getPriority(Node node) {
+        Integer priority = priorities.get(node);
+        if (priority == null) {
+            // nodes out of the ICFG are polled after all ICFG nodes
+            priority = priorities.size();
+            priorities.put(node, priority);
+            if (priority == nodes.length) {
+                nodes = Arrays.copyOf(nodes, Math.max(16, nodes.length * 2));
+            }
+            nodes[priority] = node;
+        }
+        return priority;
+    }
+
+    /**
+     * Adds given node if it is not in this work-list.
+     *
+     * @return true if this work-list changed as a result of the call.
+     */
+    @Override
+    public boolean add(Node node) {
+        return offer(node);
+    }
+
+    @Override
+    public boolean offer(Node node) {
+        int priority = getPriority(node);
+        if (pending.get(priority)) {
+            return false;
+        }
+        pending.set(priority);
+        ++size;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Node poll() {
+        int priority = nextPending();
+        if (priority < 0) {
+            return null;
+        }
+        pending.clear(priority);
+        --size;
+        cursor = priority + 1;
+        return (Node) nodes[priority];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Node peek() {
+        int priority = nextPending();
+        return priority < 0 ? null : (Node) nodes[priority];
+    }
+
+    private int nextPending() {
+        int priority = pending.nextSetBit(cursor);
+        return priority >= 0 ? priority : pending.nextSetBit(0);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Integer priority = priorities.get(o);
+        return priority != null && pending.get(priority);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        pending.clear();
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Node> iterator() {
+        return pending.stream()
+                .mapToObj(priority -> (Node) nodes[priority])
+                .iterator();
+    }
+
+    /**
+     * @return the nodes of given ICFG ordered by priorities.
+     */
+    private static <Method, Node> List<Node> computeOrder(ICFG<Method, Node> icfg) {
+        Map<Method, List<Node>> method2Nodes = Maps.newMap();
+        for (Node node : icfg) {
+            method2Nodes.computeIfAbsent(icfg.getContainingMethodOf(node),
+                    m -> new ArrayList<>()).add(node);
+        }
+        // callers before callees
+        List<Method> roots = new ArrayList<>();
+        icfg.entryMethods().forEach(roots::add);
+        roots.addAll(method2Nodes.keySet());
+        List<Method> methods = reversePostOrder(roots, method ->
+                method2Nodes.getOrDefault(method, List.of())
+                        .stream()
+                        .filter(icfg::isCallSite)
+                        .flatMap(callSite -> icfg.getCalleesOf(callSite).stream())
+                        .collect(Collectors.toList()));
+        // nodes of each method in reverse post-order of its intra edges
+        List<Node> order = new ArrayList<>(icfg.getNumberOfNodes());
+        for (Method method : methods) {
+            List<Node> methodNodes = method2Nodes.get(method);
+            if (methodNodes == null) {
+                continue;
+            }
+            List<Node> methodRoots = new ArrayList<>(methodNodes.size() + 1);
+            methodRoots.add(icfg.getEntryOf(method));
+            methodRoots.addAll(methodNodes);
+            order.addAll(reversePostOrder(methodRoots, node ->
+                    icfg.getSuccsOf(node)
+                            .stream()
+                            .filter(succ -> icfg.getContainingMethodOf(succ) == method)
+                            .collect(Collectors.toList())));
+        }
+        return order;
+    }
+
+    /**
+     * Computes reverse post-order of the nodes reachable from given roots.
+     * The roots are searched in order, and the nodes first reached from
+     * an earlier root are ordered before the ones from later roots.
+     */
+    private static <T> List<T> reversePostOrder(
+            List<T> roots, Function<T, ? extends Iterable<T>> succs) {
+        List<T> order = new ArrayList<>();
+        List<T> postOrder = new ArrayList<>();
+        Set<T> visited = Sets.newSet();
+        Deque<T> stack = new ArrayDeque<>();
+        Deque<Iterator<T>> succIters = new ArrayDeque<>();
+        for (T root : roots) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            stack.push(root);
+            succIters.push(succs.apply(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<T> iter = succIters.peek();
+                if (iter.hasNext()) {
+                    T succ = iter.next();
+                    if (visited.add(succ)) {
+                        stack.push(succ);
+                        succIters.push(succs.apply(succ).iterator());
+                    }
+                } else {
+                    postOrder.add(stack.pop());
+                    succIters.pop();
+                }
+            }
+            Collections.reverse(postOrder);
+            order.addAll(postOrder);
+            postOrder.clear();
+        }
+        return order;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Solver for inter-procedural data-flow analysis which solves
+ * the SCCs of the call graph in parallel.
+ * <p>
+ * The SCCs are grouped into levels of the condensed call graph, i.e.,
+ * an SCC is at a deeper level than all its callers. The SCCs at the same
+ * level neither call each other nor share any ICFG edges, thus they can be
+ * solved concurrently, and each of them is iterated to its own fixpoint.
+ * The levels are swept top-down in passes, and an SCC is solved again
+ * if the facts flowing into it changed, e.g., via a return edge from
+ * a callee in a deeper level. As the facts of each node are only updated
+ * by the task of its SCC, the solver reaches the same fixpoint as
+ * {@link InterSolver}.
+ */
+class ParallelInterSolver<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final int threads;
+
+    private DataflowResult<Node, Fact> result;
+
+    private final Map<Node, Component<Node>> node2Component = Maps.newMap();
+
+    ParallelInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                        ICFG<Method, Node> icfg, int threads) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.threads = threads;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        result = new DataflowResult<>();
+        initialize();
+        List<List<Component<Node>>> levels = buildLevels();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            boolean changed;
+            do {
+                changed = false;
+                for (List<Component<Node>> level : levels) {
+                    List<Callable<Void>> tasks = new ArrayList<>();
+                    for (Component<Node> component : level) {
+                        if (component.dirty.getAndSet(false)) {
+                            tasks.add(() -> {
+                                doSolve(component);
+                                return null;
+                            });
+                        }
+                    }
+                    if (!tasks.isEmpty()) {
+                        changed = true;
+                        for (Future<Void> future : executor.invokeAll(tasks)) {
+                            future.get();
+                        }
+                    }
+                }
+            } while (changed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return result;
+    }
+
+    private void initialize() {
+        for (Node node : icfg.getNodes()) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            result.setInFact(entry, analysis.newBoundaryFact(entry));
+            result.setOutFact(entry, analysis.newBoundaryFact(entry));
+        });
+    }
+
+    /**
+     * Computes the SCCs of the call graph, and groups them by levels.
+     */
+    private List<List<Component<Node>>> buildLevels() {
+        Map<Method, List<Node>> method2Nodes = Maps.newMap();
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        for (Node node : icfg.getNodes()) {
+            Method method = icfg.getContainingMethodOf(node);
+            method2Nodes.computeIfAbsent(method, m -> new ArrayList<>()).add(node);
+            callGraph.addNode(method);
+            if (icfg.isCallSite(node)) {
+                icfg.getCalleesOf(node)
+                        .forEach(callee -> callGraph.addEdge(method, callee));
+            }
+        }
+        MergedSCCGraph<Method> sccGraph = new MergedSCCGraph<>(callGraph);
+        // compute the level of each SCC by Kahn's algorithm
+        Map<MergedNode<Method>, Integer> inDegrees = Maps.newMap();
+        Map<MergedNode<Method>, Integer> depths = Maps.newMap();
+        Queue<MergedNode<Method>> queue = new SetQueue<>();
+        for (MergedNode<Method> scc : sccGraph) {
+            int inDegree = (int) sccGraph.getPredsOf(scc)
+                    .stream()
+                    .filter(pred -> !pred.equals(scc))
+                    .count();
+            inDegrees.put(scc, inDegree);
+            if (inDegree == 0) {
+                depths.put(scc, 0);
+                queue.add(scc);
+            }
+        }
+        List<List<Component<Node>>> levels = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            MergedNode<Method> scc = queue.poll();
+            int depth = depths.get(scc);
+            while (levels.size() <= depth) {
+                levels.add(new ArrayList<>());
+            }
+            List<Node> nodes = new ArrayList<>();
+            scc.getNodes().forEach(method -> nodes.addAll(method2Nodes.get(method)));
+            Component<Node> component = new Component<>(nodes);
+            nodes.forEach(node -> node2Component.put(node, component));
+            levels.get(depth).add(component);
+            for (MergedNode<Method> succ : sccGraph.getSuccsOf(scc)) {
+                if (succ.equals(scc)) {
+                    continue;
+                }
+                depths.merge(succ, depth + 1, Math::max);
+                if (inDegrees.merge(succ, -1, Integer::sum) == 0) {
+                    queue.add(succ);
+                }
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Iterates the nodes of given component to fixpoint. The facts of
+     * the nodes in other components are only read, and the components
+     * whose inputs changed are marked dirty.
+     */
+    private void doSolve(Component<Node> component) {
+        Queue<Node> workList = new SetQueue<>();
+        workList.addAll(component.nodes);
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in = result.getInFact(node);
+            icfg.getInEdgesOf(node).forEach(edge -> {
+                Fact predOut = result.getOutFact(edge.getSource());
+                analysis.meetInto(analysis.transferEdge(edge, predOut), in);
+            });
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (Node succ : icfg.getSuccsOf(node)) {
+                    Component<Node> succComponent = node2Component.get(succ);
+                    if (succComponent == component) {
+                        workList.add(succ);
+                    } else {
+                        succComponent.dirty.set(true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * An SCC of the call graph, with the ICFG nodes of its methods.
+     */
+    private static class Component<Node> {
+
+        private final List<Node> nodes;
+
+        /**
+         * Whether this component needs to be solved (again).
+         */
+        private final AtomicBoolean dirty = new AtomicBoolean(true);
+
+        private Component(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+    }
+}
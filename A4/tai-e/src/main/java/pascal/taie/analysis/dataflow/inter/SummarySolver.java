@@ -0,0 +1,350 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Summary-based solver for interprocedural constant propagation.
+ * <p>
+ * Instead of propagating facts through the call and return edges of ICFG,
+ * each method is analyzed intraprocedurally under a context, i.e., the
+ * values of its int parameters, and the result is summarized as the
+ * return value under the context. Summaries are cached by method and
+ * context, and are reused at all call sites which call the method
+ * with the same context. When the return value of a summary changes,
+ * the summaries of its callers are recomputed, until a fixed point.
+ * <p>
+ * To guarantee termination, each method has at most {@code contextLimit}
+ * summaries, and the further contexts are merged to the context where
+ * all parameters are NAC. The facts of a statement in the result are
+ * the meet of its facts under all contexts.
+ * <p>
+ * Before the facts of a caller converge, its call sites may create
+ * contexts which do not hold at the fixed point, e.g., the first value
+ * of a loop variable. Such contexts are superseded once the caller is
+ * analyzed again, and the summaries which are no longer used by any
+ * caller are evicted, so that they neither take up the limit of
+ * contexts nor are merged into the result.
+ */
+class SummarySolver {
+
+    private final ConstantPropagation cp;
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final int contextLimit;
+
+    private final Map<Key, Summary> summaries = Maps.newMap();
+
+    private final Map<JMethod, Integer> contextCounts = Maps.newMap();
+
+    private final Queue<Summary> workList = new ArrayDeque<>();
+
+    SummarySolver(ConstantPropagation cp, ICFG<JMethod, Stmt> icfg,
+                  int contextLimit) {
+        this.cp = cp;
+        this.icfg = icfg;
+        this.contextLimit = contextLimit;
+    }
+
+    DataflowResult<Stmt, CPFact> solve() {
+        icfg.entryMethods().forEach(method -> getSummary(method,
+                Collections.nCopies(getIntParams(method).size(), Value.getNAC()))
+                .isEntry = true);
+        while (!workList.isEmpty()) {
+            Summary summary = workList.poll();
+            summary.queued = false;
+            if (summary.evicted) {
+                continue;
+            }
+            if (analyze(summary) && !summary.evicted) {
+                summary.callers.forEach(this::enqueue);
+            }
+        }
+        return mergeResults();
+    }
+
+    /**
+     * @return the summary of given method under given context,
+     * the summary will be computed if it has not been computed.
+     */
+    private Summary getSummary(JMethod method, List<Value> context) {
+        Key key = new Key(method, context);
+        Summary summary = summaries.get(key);
+        if (summary == null) {
+            int count = contextCounts.getOrDefault(method, 0);
+            if (count >= contextLimit && !isAllNAC(context)) {
+                return getSummary(method,
+                        Collections.nCopies(context.size(), Value.getNAC()));
+            }
+            contextCounts.put(method, count + 1);
+            summary = new Summary(key);
+            summaries.put(key, summary);
+            enqueue(summary);
+        }
+        return summary;
+    }
+
+    private static boolean isAllNAC(List<Value> context) {
+        return context.stream().allMatch(Value::isNAC);
+    }
+
+    private void enqueue(Summary summary) {
+        if (!summary.queued && !summary.evicted) {
+            summary.queued = true;
+            workList.add(summary);
+        }
+    }
+
+    /**
+     * Analyzes the method of given summary under its context.
+     *
+     * @return true if the return value of the summary changed.
+     */
+    private boolean analyze(Summary summary) {
+        JMethod method = summary.key.method();
+        CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt node : cfg) {
+            result.setInFact(node, cp.newInitialFact());
+            result.setOutFact(node, cp.newInitialFact());
+        }
+        CPFact entryFact = cp.newInitialFact();
+        List<Var> params = getIntParams(method);
+        for (int i = 0; i < params.size(); ++i) {
+            entryFact.update(params.get(i), summary.key.context().get(i));
+        }
+        result.setOutFact(cfg.getEntry(), entryFact);
+        // summaries used by the call sites during this analysis,
+        // including the ones under superseded contexts
+        Set<Summary> used = Sets.newHybridSet(summary.callees);
+        summary.callSites.clear();
+        Queue<Stmt> nodes = new ArrayDeque<>();
+        Set<Stmt> inQueue = Sets.newSet();
+        for (Stmt node : cfg) {
+            if (!cfg.isEntry(node)) {
+                nodes.add(node);
+                inQueue.add(node);
+            }
+        }
+        while (!nodes.isEmpty()) {
+            Stmt node = nodes.poll();
+            inQueue.remove(node);
+            CPFact in = result.getInFact(node);
+            for (Stmt pred : cfg.getPredsOf(node)) {
+                cp.meetInto(getEdgeFact(summary, pred, result.getOutFact(pred), used), in);
+            }
+            CPFact out = result.getOutFact(node);
+            boolean changed = icfg.isCallSite(node) ?
+                    out.copyFrom(in) : cp.transferNode(node, in, out);
+            if (changed) {
+                for (Stmt succ : cfg.getSuccsOf(node)) {
+                    if (inQueue.add(succ)) {
+                        nodes.add(succ);
+                    }
+                }
+            }
+        }
+        summary.result = result;
+        releaseSuperseded(summary, used);
+        Value returnValue = Value.getUndef();
+        CPFact exitFact = result.getOutFact(cfg.getExit());
+        for (Var returnVar : method.getIR().getReturnVars()) {
+            returnValue = cp.meetValue(returnValue, exitFact.get(returnVar));
+        }
+        if (!returnValue.equals(summary.returnValue)) {
+            summary.returnValue = returnValue;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the fact flowing from given predecessor to its successor.
+     * If the predecessor is a call site, the result variable of the call
+     * site takes the return values of the summaries of all its callees.
+     */
+    private CPFact getEdgeFact(Summary caller, Stmt pred, CPFact predOut,
+                               Set<Summary> used) {
+        if (!icfg.isCallSite(pred)) {
+            return predOut;
+        }
+        Invoke invoke = (Invoke) pred;
+        Var result = invoke.getResult();
+        Value returnValue = Value.getUndef();
+        List<Summary> callees = new ArrayList<>();
+        for (JMethod callee : icfg.getCalleesOf(invoke)) {
+            List<Var> args = invoke.getInvokeExp().getArgs();
+            List<Value> context = new ArrayList<>();
+            List<Var> params = callee.getIR().getParams();
+            for (int i = 0; i < params.size(); ++i) {
+                if (ConstantPropagation.canHoldInt(params.get(i))) {
+                    context.add(predOut.get(args.get(i)));
+                }
+            }
+            Summary summary = getSummary(callee, context);
+            summary.callers.add(caller);
+            callees.add(summary);
+            used.add(summary);
+            returnValue = cp.meetValue(returnValue, summary.returnValue);
+        }
+        // the latest contexts of a call site supersede its former ones
+        caller.callSites.put(invoke, callees);
+        if (result == null) {
+            return predOut;
+        }
+        CPFact fact = predOut.copy();
+        fact.update(result, returnValue);
+        return fact;
+    }
+
+    /**
+     * Releases the summaries which were used by given caller, but are
+     * not used by its call sites under the current facts.
+     */
+    private void releaseSuperseded(Summary caller, Set<Summary> used) {
+        Set<Summary> callees = Sets.newHybridSet();
+        caller.callSites.values().forEach(callees::addAll);
+        caller.callees = callees;
+        for (Summary callee : used) {
+            if (!callees.contains(callee)) {
+                release(callee, caller);
+            }
+        }
+    }
+
+    /**
+     * Removes caller from the callers of callee, and evicts callee
+     * if it is no longer used.
+     */
+    private void release(Summary callee, Summary caller) {
+        callee.callers.remove(caller);
+        if (callee.callers.isEmpty() && !callee.isEntry && !callee.evicted) {
+            evict(callee);
+        }
+    }
+
+    private void evict(Summary summary) {
+        summary.evicted = true;
+        summaries.remove(summary.key);
+        contextCounts.merge(summary.key.method(), -1, Integer::sum);
+        summary.callSites.clear();
+        summary.callees.forEach(callee -> release(callee, summary));
+        summary.callees = Set.of();
+    }
+
+    private static List<Var> getIntParams(JMethod method) {
+        IR ir = method.getIR();
+        return ir.getParams()
+                .stream()
+                .filter(ConstantPropagation::canHoldInt)
+                .toList();
+    }
+
+    /**
+     * @return the meet of the results of all summaries.
+     */
+    private DataflowResult<Stmt, CPFact> mergeResults() {
+        DataflowResult<Stmt, CPFact> merged = new DataflowResult<>();
+        for (Stmt node : icfg) {
+            merged.setInFact(node, cp.newInitialFact());
+            merged.setOutFact(node, cp.newInitialFact());
+        }
+        for (Summary summary : summaries.values()) {
+            CFG<Stmt> cfg = summary.key.method().getIR().getResult(CFGBuilder.ID);
+            for (Stmt node : cfg) {
+                cp.meetInto(summary.result.getInFact(node), merged.getInFact(node));
+                cp.meetInto(summary.result.getOutFact(node), merged.getOutFact(node));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Key of summaries, i.e., a method and the values of its int parameters.
+     */
+    private record Key(JMethod method, List<Value> context) {
+    }
+
+    private static class Summary {
+
+        private final Key key;
+
+        /**
+         * Summaries whose methods call the method of this summary
+         * under its context.
+         */
+        private final Set<Summary> callers = Sets.newHybridSet();
+
+        /**
+         * Summaries used by each call site under the current facts.
+         */
+        private final Map<Invoke, List<Summary>> callSites = Maps.newMap();
+
+        /**
+         * Summaries used by the call sites when this summary
+         * was analyzed last time.
+         */
+        private Set<Summary> callees = Set.of();
+
+        /**
+         * Whether this summary is of an entry method, which
+         * is never evicted.
+         */
+        private boolean isEntry = false;
+
+        private boolean evicted = false;
+
+        private DataflowResult<Stmt, CPFact> result;
+
+        private Value returnValue = Value.getUndef();
+
+        private boolean queued = false;
+
+        private Summary(Key key) {
+            this.key = key;
+        }
+    }
+}
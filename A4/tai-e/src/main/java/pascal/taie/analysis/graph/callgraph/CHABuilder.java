@@ -29,8 +29,11 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
 import java.util.Queue;
 
@@ -41,13 +44,23 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     private ClassHierarchy hierarchy;
 
+    /**
+     * Cache of the targets of virtual and interface calls, keyed by
+     * the declaring class and subsignature of the method reference,
+     * as many call sites share the same method reference.
+     * The cache is thread-safe, so that call sites can be resolved
+     * concurrently by {@link ParallelCHABuilder}.
+     */
+    private final Map<JClass, Map<Subsignature, Set<JMethod>>> virtualTargets
+            = Maps.newConcurrentMap();
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
         return buildCallGraph(World.get().getMainMethod());
     }
 
-    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+    CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
         // TODO - finish me
@@ -72,7 +85,7 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
     /**
      * Resolves call targets (callees) of a call site via CHA.
      */
-    private Set<JMethod> resolve(Invoke callSite) {
+    Set<JMethod> resolve(Invoke callSite) {
         // TODO - finish me
         assert callSite != null; // callSite should not be null
         Set<JMethod> targetsMethod = new java.util.HashSet<>();
@@ -88,21 +101,18 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
                 }
             }
             case VIRTUAL, INTERFACE -> {
-                Queue<JClass> workList = new LinkedList<>();
-                workList.add(csDeclaringClass);
-                while (!workList.isEmpty()) {
-                    JClass jclass = workList.poll();
-                    JMethod target = dispatch(jclass, csSubsignature);
-                    if (target != null) {
-                        targetsMethod.add(target);
-                    }
-                    if (jclass.isInterface()) {
-                        workList.addAll(hierarchy.getDirectImplementorsOf(jclass));
-                        workList.addAll(hierarchy.getDirectSubinterfacesOf(jclass));
-                    } else {
-                        workList.addAll(hierarchy.getDirectSubclassesOf(jclass));
-                    }
-                }
+                return virtualTargets
+                        .computeIfAbsent(csDeclaringClass, c -> Maps.newConcurrentMap())
+                        .computeIfAbsent(csSubsignature, subsig -> {
+                            Set<JMethod> targets = Sets.newSet();
+                            for (JClass jclass : hierarchy.getAllSubtypesOf(csDeclaringClass)) {
+                                JMethod target = dispatch(jclass, subsig);
+                                if (target != null) {
+                                    targets.add(target);
+                                }
+                            }
+                            return targets;
+                        });
             }
             default -> {
             }
@@ -117,21 +127,16 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      * @return the dispatched target method, or null if no satisfying method
      * can be found.
      */
-    private JMethod dispatch(JClass jclass, Subsignature subsignature) {
+    static JMethod dispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finish me
         assert subsignature != null; // subSignature should not be null
-        if(jclass == null){
-            return null;
-        }
-        JMethod target = jclass.getDeclaredMethod(subsignature);
-        if (target != null) {
-            // If the target method is abstract, it cannot be instantiated.
-            if (target.isAbstract()) {
-                return null;
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            JMethod target = c.getDeclaredMethod(subsignature);
+            if (target != null) {
+                // If the target method is abstract, it cannot be instantiated.
+                return target.isAbstract() ? null : target;
             }
-            return target;
-
         }
-        return dispatch(jclass.getSuperClass(), subsignature);
+        return null;
     }
 }
@@ -57,7 +57,16 @@ public class CallGraphBuilder extends ProgramAnalysis {
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            if (getOptions().getBooleanOrDefault("parallel", false)) {
+                Object threads = getOptions().get("threads");
+                builder = new ParallelCHABuilder(threads == null
+                        ? Runtime.getRuntime().availableProcessors()
+                        : Integer.parseInt(threads.toString()));
+            } else {
+                builder = new CHABuilder();
+            }
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Implementation of the CHA algorithm which resolves call sites in parallel.
+ * <p>
+ * The call graph is built level by level in the breadth-first order of
+ * {@link CHABuilder}: the call sites of the newly reachable methods in
+ * the current level are resolved concurrently, and the results are
+ * merged into the call graph in the order of the call sites. Thus the
+ * methods and edges are added in the same order as the sequential
+ * builder, and the dumped call graph is identical.
+ */
+class ParallelCHABuilder extends CHABuilder {
+
+    private final int threads;
+
+    ParallelCHABuilder(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<JMethod> frontier = List.of(entry);
+            while (!frontier.isEmpty()) {
+                // IRs are built sequentially when the methods
+                // are added to the call graph
+                List<Callable<List<Set<JMethod>>>> tasks = new ArrayList<>();
+                List<Invoke> callSites = new ArrayList<>();
+                for (JMethod method : frontier) {
+                    if (callGraph.addReachableMethod(method)) {
+                        List<Invoke> methodCallSites =
+                                List.copyOf(callGraph.getCallSitesIn(method));
+                        callSites.addAll(methodCallSites);
+                        tasks.add(() -> methodCallSites.stream()
+                                .map(this::resolve)
+                                .toList());
+                    }
+                }
+                List<JMethod> next = new ArrayList<>();
+                int i = 0;
+                for (Future<List<Set<JMethod>>> future : executor.invokeAll(tasks)) {
+                    for (Set<JMethod> targets : future.get()) {
+                        Invoke callSite = callSites.get(i++);
+                        CallKind kind = CallGraphs.getCallKind(callSite);
+                        for (JMethod target : targets) {
+                            callGraph.addEdge(new Edge<>(kind, callSite, target));
+                            next.add(target);
+                        }
+                    }
+                }
+                frontier = next;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return callGraph;
+    }
+}
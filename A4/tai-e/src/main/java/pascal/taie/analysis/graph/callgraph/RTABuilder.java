@@ -0,0 +1,186 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the RTA (Rapid Type Analysis) algorithm.
+ * Different from CHA, RTA only dispatches virtual calls on the classes
+ * which are instantiated in reachable methods, i.e., by {@code new}
+ * statements, or by string and class literals. Objects of array types
+ * are treated as instances of {@code java.lang.Object}, on which
+ * their methods are dispatched.
+ * <p>
+ * The reachable methods and the instantiated classes are computed
+ * on the fly: when a class becomes instantiated, the virtual calls
+ * which have been met are dispatched on it again.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    private final Set<JClass> instantiatedClasses = Sets.newSet();
+
+    /**
+     * Map from the declaring class of method references to the virtual
+     * and interface call sites in reachable methods.
+     */
+    private final MultiMap<JClass, Invoke> virtualCallSites = Maps.newMultiMap();
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        return buildCallGraph(World.get().getMainMethod());
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        workList = new LinkedList<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method) && !method.isAbstract()) {
+                processNewMethod(method);
+            }
+        }
+        return callGraph;
+    }
+
+    private void processNewMethod(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                instantiate(getInstantiatedClass(newStmt.getRValue()));
+            } else if (stmt instanceof AssignLiteral assign &&
+                    assign.getRValue() instanceof ReferenceLiteral literal &&
+                    literal.getType() instanceof ClassType type) {
+                instantiate(type.getJClass());
+            }
+        }
+        for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+            MethodRef ref = callSite.getMethodRef();
+            JClass declaringClass = ref.getDeclaringClass();
+            switch (CallGraphs.getCallKind(callSite)) {
+                case STATIC, SPECIAL -> addEdge(callSite,
+                        CHABuilder.dispatch(declaringClass, ref.getSubsignature()));
+                case VIRTUAL, INTERFACE -> {
+                    virtualCallSites.put(declaringClass, callSite);
+                    Collection<JClass> subtypes = hierarchy.getAllSubtypesOf(declaringClass);
+                    // iterate the smaller one of the two sets
+                    if (instantiatedClasses.size() < subtypes.size()) {
+                        instantiatedClasses.stream()
+                                .filter(subtypes::contains)
+                                .toList()
+                                .forEach(jclass -> dispatchOn(callSite, jclass));
+                    } else {
+                        subtypes.stream()
+                                .filter(instantiatedClasses::contains)
+                                .toList()
+                                .forEach(jclass -> dispatchOn(callSite, jclass));
+                    }
+                }
+                default -> {
+                }
+                // dynamic calls are not handled, as in CHA
+            }
+        }
+    }
+
+    private JClass getInstantiatedClass(NewExp newExp) {
+        if (newExp instanceof NewInstance newInstance) {
+            return newInstance.getType().getJClass();
+        } else { // arrays
+            return hierarchy.getJREClass(ClassNames.OBJECT);
+        }
+    }
+
+    /**
+     * Marks given class as instantiated, and dispatches the virtual calls
+     * which have been met on it.
+     */
+    private void instantiate(JClass jclass) {
+        if (jclass == null || !instantiatedClasses.add(jclass)) {
+            return;
+        }
+        // traverse all supertypes of jclass, as virtual calls on them
+        // may be dispatched to jclass
+        Set<JClass> supertypes = Sets.newSet();
+        Deque<JClass> stack = new ArrayDeque<>();
+        stack.push(jclass);
+        while (!stack.isEmpty()) {
+            JClass type = stack.pop();
+            if (supertypes.add(type)) {
+                virtualCallSites.get(type)
+                        .forEach(callSite -> dispatchOn(callSite, jclass));
+                if (type.getSuperClass() != null) {
+                    stack.push(type.getSuperClass());
+                }
+                type.getInterfaces().forEach(stack::push);
+            }
+        }
+    }
+
+    /**
+     * Dispatches given virtual call site on receiver class, and adds
+     * the call edge to the target (if found).
+     */
+    private void dispatchOn(Invoke callSite, JClass receiverClass) {
+        addEdge(callSite, CHABuilder.dispatch(receiverClass,
+                callSite.getMethodRef().getSubsignature()));
+    }
+
+    private void addEdge(Invoke callSite, JMethod target) {
+        if (target != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, target))) {
+            workList.add(target);
+        }
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.graph.icfg;
 import pascal.taie.util.graph.Graph;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -83,4 +84,14 @@ public interface ICFG<Method, Node> extends Graph<Node> {
      * @return true if the given node is a call site, otherwise false.
      */
     boolean isCallSite(Node node);
+
+    /**
+     * @return the nodes of the given method.
+     */
+    default Set<Node> getNodesOf(Method method) {
+        return getNodes()
+                .stream()
+                .filter(node -> method.equals(getContainingMethodOf(node)))
+                .collect(Collectors.toSet());
+    }
 }
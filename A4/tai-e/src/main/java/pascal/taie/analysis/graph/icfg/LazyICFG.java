@@ -0,0 +1,263 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.analysis.graph.icfg.ICFGBuilder.getCFGOf;
+
+/**
+ * ICFG whose edges are built on demand.
+ * <p>
+ * The edges of a method, i.e., the incoming and outgoing edges of its
+ * nodes, are built when any of its nodes is first queried, which usually
+ * happens when the solver first reaches the entry of the method. The
+ * edges of at most {@code capacity} methods are kept, and the edges of
+ * the least recently queried methods, which the solver is no longer
+ * working on, are evicted and will be rebuilt if they are queried again.
+ * <p>
+ * Querying all nodes of the ICFG, e.g., by {@link #getNodes()},
+ * maps every reachable method to its nodes, but still does not
+ * build any edges.
+ */
+public class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(LazyICFG.class);
+
+    private final Map<Stmt, JMethod> stmtToMethod = Maps.newMap();
+
+    private final Set<JMethod> registered = Sets.newSet();
+
+    private boolean allRegistered = false;
+
+    private final Map<JMethod, MethodEdges> methodEdges;
+
+    LazyICFG(CallGraph<Stmt, JMethod> callGraph, int capacity) {
+        super(callGraph);
+        methodEdges = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<JMethod, MethodEdges> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Incoming and outgoing edges of the nodes of a method.
+     */
+    private record MethodEdges(MultiMap<Stmt, ICFGEdge<Stmt>> inEdges,
+                               MultiMap<Stmt, ICFGEdge<Stmt>> outEdges) {
+    }
+
+    /**
+     * Maps the nodes of given method to the method.
+     *
+     * @return false if given method has no CFG, otherwise true.
+     */
+    private synchronized boolean register(JMethod method) {
+        CFG<Stmt> cfg = getCFGOf(method);
+        if (cfg == null) {
+            logger.warn("CFG of {} is absent, try to fix this" +
+                    " by adding option -scope=reachable", method);
+            return false;
+        }
+        if (registered.add(method)) {
+            cfg.forEach(stmt -> stmtToMethod.put(stmt, method));
+        }
+        return true;
+    }
+
+    private synchronized void registerAll() {
+        if (!allRegistered) {
+            callGraph.reachableMethods().forEach(this::register);
+            allRegistered = true;
+        }
+    }
+
+    private synchronized JMethod getMethodOf(Stmt stmt) {
+        JMethod method = stmtToMethod.get(stmt);
+        if (method == null && !allRegistered) {
+            // the node has not been reached through the ICFG
+            registerAll();
+            method = stmtToMethod.get(stmt);
+        }
+        return method;
+    }
+
+    private synchronized MethodEdges getEdgesOf(Stmt stmt) {
+        JMethod method = getMethodOf(stmt);
+        if (method == null) {
+            return null;
+        }
+        return methodEdges.computeIfAbsent(method, this::buildEdges);
+    }
+
+    private MethodEdges buildEdges(JMethod method) {
+        MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+        MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+        CFG<Stmt> cfg = getCFGOf(method);
+        for (Stmt stmt : cfg) {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                ICFGEdge<Stmt> local = isCallSite(stmt) ?
+                        new CallToReturnEdge<>(edge) : new NormalEdge<>(edge);
+                outEdges.put(stmt, local);
+                inEdges.put(edge.getTarget(), local);
+            }
+            if (isCallSite(stmt)) {
+                // call edges out of, and return edges into, this method
+                for (JMethod callee : getCalleesOf(stmt)) {
+                    if (!register(callee)) {
+                        continue;
+                    }
+                    outEdges.put(stmt, new CallEdge<>(stmt, getEntryOf(callee), callee));
+                    for (Stmt retSite : cfg.getSuccsOf(stmt)) {
+                        inEdges.put(retSite, newReturnEdge(callee, retSite, stmt));
+                    }
+                }
+            }
+        }
+        // call edges into, and return edges out of, this method
+        Stmt entry = cfg.getEntry();
+        Stmt exit = cfg.getExit();
+        for (Stmt callSite : getCallersOf(method)) {
+            JMethod caller = callGraph.getContainerOf(callSite);
+            if (!register(caller)) {
+                continue;
+            }
+            inEdges.put(entry, new CallEdge<>(callSite, entry, method));
+            for (Stmt retSite : getCFGOf(caller).getSuccsOf(callSite)) {
+                outEdges.put(exit, newReturnEdge(method, retSite, callSite));
+            }
+        }
+        return new MethodEdges(inEdges, outEdges);
+    }
+
+    private static ReturnEdge<Stmt> newReturnEdge(
+            JMethod callee, Stmt retSite, Stmt callSite) {
+        CFG<Stmt> calleeCFG = getCFGOf(callee);
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        for (Edge<Stmt> edge : calleeCFG.getInEdgesOf(calleeCFG.getExit())) {
+            if (edge.getKind() == Edge.Kind.RETURN) {
+                Var retVar = ((Return) edge.getSource()).getValue();
+                if (retVar != null) {
+                    retVars.add(retVar);
+                }
+            } else if (edge.isExceptional()) {
+                exceptions.addAll(edge.getExceptions());
+            }
+        }
+        return new ReturnEdge<>(calleeCFG.getExit(), retSite, callSite,
+                retVars, exceptions);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        MethodEdges edges = getEdgesOf(stmt);
+        return edges == null ? Set.of() : edges.inEdges().get(stmt);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        MethodEdges edges = getEdgesOf(stmt);
+        return edges == null ? Set.of() : edges.outEdges().get(stmt);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return getCFGOf(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return getCFGOf(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(getMethodOf(callSite)).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return getMethodOf(stmt);
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<Stmt> getNodesOf(JMethod method) {
+        return register(method) ? getCFGOf(method).getNodes() : Set.of();
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return getMethodOf(stmt) != null;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public synchronized Set<Stmt> getNodes() {
+        registerAll();
+        return Collections.unmodifiableSet(stmtToMethod.keySet());
+    }
+}
@@ -75,6 +75,13 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return all subtypes of given class or interface, including itself,
+     * i.e., the transitive closure of direct subclasses, subinterfaces
+     * and implementors.
+     */
+    Collection<JClass> getAllSubtypesOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
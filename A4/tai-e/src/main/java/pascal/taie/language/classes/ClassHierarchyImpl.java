@@ -29,14 +29,17 @@ import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
 import static pascal.taie.util.collection.Maps.newMap;
 import static pascal.taie.util.collection.Maps.newSmallMap;
 import static pascal.taie.util.collection.Sets.newHybridSet;
+import static pascal.taie.util.collection.Sets.newSet;
 
 public class ClassHierarchyImpl implements ClassHierarchy {
 
@@ -65,6 +68,13 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Map from each class to all its subtypes (including itself).
+     * The closures are computed on demand, and cleared when the
+     * hierarchy changes.
+     */
+    private final Map<JClass, Set<JClass>> allSubtypes = newConcurrentMap();
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -97,6 +107,7 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public void addClass(JClass jclass) {
+        allSubtypes.clear();
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -160,6 +171,27 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    @Override
+    public Collection<JClass> getAllSubtypesOf(JClass jclass) {
+        Set<JClass> subtypes = allSubtypes.get(jclass);
+        if (subtypes == null) {
+            Set<JClass> closure = newSet();
+            closure.add(jclass);
+            Collection<JClass> directSubtypes = jclass.isInterface()
+                    ? Stream.concat(getDirectSubinterfacesOf(jclass).stream(),
+                            getDirectImplementorsOf(jclass).stream())
+                        .toList()
+                    : getDirectSubclassesOf(jclass);
+            // the closures of the subtypes are computed (and cached) first,
+            // so that each closure is built only once
+            directSubtypes.forEach(subtype ->
+                    closure.addAll(getAllSubtypesOf(subtype)));
+            subtypes = Collections.unmodifiableSet(closure);
+            allSubtypes.put(jclass, subtypes);
+        }
+        return subtypes;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -23,8 +23,20 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
 
 public class InterCPTest {
 
@@ -38,6 +50,24 @@ public class InterCPTest {
         );
     }
 
+    void testSummary(String inputClass) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false;summary:true",
+                "-a", "cg=algorithm:cha");
+    }
+
+    void testLazyICFG(String inputClass) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false",
+                "-a", "cg=algorithm:cha", "-a", "icfg=lazy:true;lazy-capacity:2");
+    }
+
+    void testParallel(String inputClass) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false;parallel:true;threads:4",
+                "-a", "cg=algorithm:cha");
+    }
+
     @Test
     public void testExample() {
         test("Example");
@@ -57,4 +87,90 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    @Test
+    public void testSummaryExample() {
+        testSummary("Example");
+    }
+
+    @Test
+    public void testSummaryReference() {
+        testSummary("Reference");
+    }
+
+    /**
+     * Re-analyzing after any method changed gives the same result
+     * as analyzing from scratch. The facts of the changed method are
+     * corrupted in the previous result before re-analyzing, so the
+     * result is only correct if they are recomputed.
+     */
+    @SuppressWarnings("unchecked")
+    void testIncremental(String inputClass) {
+        test(inputClass);
+        DataflowResult<Stmt, CPFact> full =
+                World.get().getResult(InterConstantPropagation.ID);
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        InterConstantPropagation analysis = new InterConstantPropagation(
+                new AnalysisConfig(InterConstantPropagation.ID,
+                        "edge-refine", false, "alias-aware", false));
+        DataflowResult<Stmt, CPFact> previous =
+                (DataflowResult<Stmt, CPFact>) analysis.analyze();
+        Set<JMethod> methods = icfg.getNodes()
+                .stream()
+                .map(icfg::getContainingMethodOf)
+                .collect(Collectors.toSet());
+        for (JMethod method : methods) {
+            CPFact corrupted = new CPFact();
+            method.getIR().getVars().forEach(var -> {
+                if (ConstantPropagation.canHoldInt(var)) {
+                    corrupted.update(var, Value.getNAC());
+                }
+            });
+            for (Stmt node : icfg.getNodesOf(method)) {
+                previous.setInFact(node, corrupted);
+                previous.setOutFact(node, corrupted);
+            }
+            DataflowResult<Stmt, CPFact> incremental =
+                    analysis.reanalyze(Set.of(method));
+            for (Stmt node : icfg) {
+                String message = "Facts of " + node + " after " +
+                        method + " changed";
+                assertEquals(message, full.getInFact(node),
+                        incremental.getInFact(node));
+                assertEquals(message, full.getOutFact(node),
+                        incremental.getOutFact(node));
+            }
+            previous = incremental;
+        }
+    }
+
+    @Test
+    public void testIncrementalExample() {
+        testIncremental("Example");
+    }
+
+    @Test
+    public void testIncrementalFibonacci() {
+        testIncremental("Fibonacci");
+    }
+
+    @Test
+    public void testLazyICFGFibonacci() {
+        testLazyICFG("Fibonacci");
+    }
+
+    @Test
+    public void testLazyICFGMultiIntArgs() {
+        testLazyICFG("MultiIntArgs");
+    }
+
+    @Test
+    public void testParallelFibonacci() {
+        testParallel("Fibonacci");
+    }
+
+    @Test
+    public void testParallelReference() {
+        testParallel("Reference");
+    }
 }
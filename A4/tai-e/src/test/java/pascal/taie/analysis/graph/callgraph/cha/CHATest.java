@@ -31,6 +31,11 @@ public class CHATest {
         Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha");
     }
 
+    protected static void testParallel(String main) {
+        Tests.test(main, "src/test/resources/cha/", "cg",
+                "algorithm:cha;parallel:true;threads:4");
+    }
+
     @Test
     public void testStaticCall() {
         test("StaticCall");
@@ -50,4 +55,14 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testParallelVirtualCall() {
+        testParallel("VirtualCall");
+    }
+
+    @Test
+    public void testParallelInterface() {
+        testParallel("Interface");
+    }
 }
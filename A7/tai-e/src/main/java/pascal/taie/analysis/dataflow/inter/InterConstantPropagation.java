@@ -33,7 +33,6 @@ import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
-import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InstanceFieldAccess;
@@ -45,10 +44,12 @@ import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Implementation of interprocedural constant propagation for int values.
@@ -62,7 +63,38 @@ public class InterConstantPropagation extends
 
     private PointerAnalysisResult pta;
 
-    private final MultiMap<Var, Var> aliasMap = Maps.newMultiMap();
+    private VarAliases aliases;
+
+    /**
+     * Static field stores and loads, indexed by the fields.
+     */
+    private final MultiMap<JField, StoreField> staticStores = Maps.newMultiMap();
+
+    private final MultiMap<JField, LoadField> staticLoads = Maps.newMultiMap();
+
+    /**
+     * Stores which may be loaded by each instance field load,
+     * computed on demand from the aliases of its base.
+     */
+    private final Map<LoadField, Set<StoreField>> aliasedStores = Maps.newMap();
+
+    /**
+     * Loads which may load the value of each instance field store,
+     * computed on demand from the aliases of its base.
+     */
+    private final Map<StoreField, Set<LoadField>> aliasedLoads = Maps.newMap();
+
+    /**
+     * Array stores which may be loaded by each array load,
+     * computed on demand from the aliases of its base.
+     */
+    private final Map<LoadArray, Set<StoreArray>> aliasedArrayStores = Maps.newMap();
+
+    /**
+     * Array loads which may load the value of each array store,
+     * computed on demand from the aliases of its base.
+     */
+    private final Map<StoreArray, Set<LoadArray>> aliasedArrayLoads = Maps.newMap();
 
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
@@ -75,24 +107,85 @@ public class InterConstantPropagation extends
         PointerAnalysisResult pta = World.get().getResult(ptaId);
         // You can do initialization work here
         this.pta = pta;
-        calculateAlias(pta);
+        aliases = new VarAliases(pta);
+        buildFieldIndex();
     }
 
-    private void calculateAlias(PointerAnalysisResult pta) {
-        MultiMap<Obj, Var> objToVar = Maps.newMultiMap();
-
-        for(Var var : pta.getVars()){
-            for(Obj obj : pta.getPointsToSet(var)){
-                objToVar.put(obj, var);
+    private void buildFieldIndex() {
+        for (Stmt stmt : icfg) {
+            if (stmt instanceof StoreField storeField && storeField.isStatic()) {
+                staticStores.put(storeField.getFieldRef().resolve(), storeField);
+            } else if (stmt instanceof LoadField loadField && loadField.isStatic()) {
+                staticLoads.put(loadField.getFieldRef().resolve(), loadField);
             }
         }
+    }
+
+    /**
+     * @return the instance field stores whose bases may be aliases of
+     * the base of given load, and which store the same field.
+     */
+    private Set<StoreField> getAliasedStores(LoadField loadField) {
+        return aliasedStores.computeIfAbsent(loadField, load -> {
+            Set<StoreField> stores = Sets.newHybridSet();
+            Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+            JField field = load.getFieldRef().resolve();
+            for (Var alias : aliases.aliasesOf(base)) {
+                for (StoreField store : alias.getStoreFields()) {
+                    if (store.getFieldRef().resolve().equals(field)) {
+                        stores.add(store);
+                    }
+                }
+            }
+            return stores;
+        });
+    }
+
+    /**
+     * @return the instance field loads whose bases may be aliases of
+     * the base of given store, and which load the same field.
+     */
+    private Set<LoadField> getAliasedLoads(StoreField storeField) {
+        return aliasedLoads.computeIfAbsent(storeField, store -> {
+            Set<LoadField> loads = Sets.newHybridSet();
+            Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+            JField field = store.getFieldRef().resolve();
+            for (Var alias : aliases.aliasesOf(base)) {
+                for (LoadField load : alias.getLoadFields()) {
+                    if (load.getFieldRef().resolve().equals(field)) {
+                        loads.add(load);
+                    }
+                }
+            }
+            return loads;
+        });
+    }
+
+    /**
+     * @return the array stores whose bases may be aliases of
+     * the base of given load.
+     */
+    private Set<StoreArray> getAliasedStores(LoadArray loadArray) {
+        return aliasedArrayStores.computeIfAbsent(loadArray, load -> {
+            Set<StoreArray> stores = Sets.newHybridSet();
+            for (Var alias : aliases.aliasesOf(load.getArrayAccess().getBase())) {
+                stores.addAll(alias.getStoreArrays());
+            }
+            return stores;
+        });
+    }
 
-        objToVar.forEachSet((obj, vars) -> {
-            for(Var var : vars){
-                // we add <var, var> to aliasMap too
-                // alias relation is reflexive
-                this.aliasMap.putAll(var, vars);
+    /**
+     * @return the array loads whose bases may be aliases of
+     * the base of given store.
+     */
+    private Set<LoadArray> getAliasedLoads(StoreArray storeArray) {
+        return aliasedArrayLoads.computeIfAbsent(storeArray, store -> {
+            Set<LoadArray> loads = Sets.newHybridSet();
+            for (Var alias : aliases.aliasesOf(store.getArrayAccess().getBase())) {
+                loads.addAll(alias.getLoadArrays());
             }
+            return loads;
         });
     }
 
@@ -156,33 +249,12 @@ public class InterConstantPropagation extends
 
             if(ConstantPropagation.canHoldInt(left)){
                 Value value = in.get(left);
-                if(loadField.isStatic()){
-                    for(Stmt stmt : icfg.getNodes()){
-                        if(stmt instanceof StoreField storeField && storeField.isStatic()){
-                            if(field.equals(storeField.getFieldRef().resolve())){
-                                Var right = storeField.getRValue();
-                                Value rightValue = solver.getResult().getInFact(storeField).get(right);
-                                value = cp.meetValue(value, rightValue);
-                            }
-                        }
-                    }
-                }
-                else if (loadField.getFieldAccess() instanceof InstanceFieldAccess access){
-//                    System.out.println("-----------");
-//                    System.out.println("load: " + loadField);
-                    Var fieldBase = access.getBase();
-                    for(Var alias : aliasMap.get(fieldBase)){
-                        for (StoreField storeField : alias.getStoreFields()){
-//                            System.out.println("store: " + storeField);
-//                            System.out.println("loadField:" + field + " | " + "storeField:" + storeField.getFieldRef().resolve());
-                            //why need check this?
-                            if (field.equals(storeField.getFieldRef().resolve())) {
-                                Var right = storeField.getRValue();
-                                Value rightValue = solver.getResult().getInFact(storeField).get(right);
-                                value = cp.meetValue(value, rightValue);
-                            }
-                        }
-                    }
+                Set<StoreField> stores = loadField.isStatic() ?
+                        staticStores.get(field) : getAliasedStores(loadField);
+                for (StoreField storeField : stores) {
+                    Var right = storeField.getRValue();
+                    Value rightValue = solver.getResult().getInFact(storeField).get(right);
+                    value = cp.meetValue(value, rightValue);
                 }
                 out.update(left, value);
 
@@ -202,30 +274,9 @@ public class InterConstantPropagation extends
             JField field = storeField.getFieldRef().resolve();
             // check y value change to broadcast
             if (ConstantPropagation.canHoldInt(right) && !origin.equals(out)){
-                if (storeField.isStatic()) {
-                    for (Stmt stmt : icfg.getNodes()) {
-                        if (stmt instanceof LoadField loadField && loadField.isStatic()) {
-                            if (field.equals(loadField.getFieldRef().resolve())) {
-                                solver.getWorkList().add(loadField);
-                            }
-                        }
-                    }
-                }
-                else if(storeField.getFieldAccess() instanceof InstanceFieldAccess access){
-//                    System.out.println("-----------");
-//                    System.out.println("store: " + storeField);
-                    Var fieldBase = access.getBase();
-                    for(Var alias : aliasMap.get(fieldBase)){
-                        for (LoadField loadField : alias.getLoadFields()){
-//                            System.out.println("load: " + loadField);
-//                            System.out.println("storeField:" + field + " | " + "loadField:" + loadField.getFieldRef().resolve());
-                            //why need check this?
-                            if(field.equals(loadField.getFieldRef().resolve())) {
-                                solver.getWorkList().add(loadField);
-                            }
-                        }
-                    }
-                }
+                Set<LoadField> loads = storeField.isStatic() ?
+                        staticLoads.get(field) : getAliasedLoads(storeField);
+                solver.getWorkList().addAll(loads);
             }
             return !origin.equals(out);
         }
@@ -237,23 +288,19 @@ public class InterConstantPropagation extends
 
             Var left = loadArray.getLValue();
             Var loadIndex = loadArray.getArrayAccess().getIndex();
-            Var loadBase = loadArray.getArrayAccess().getBase();
 
             if(ConstantPropagation.canHoldInt(left)) {
                 Value leftValue = in.get(left);
                 Value loadIndexValue = in.get(loadIndex);
 
-                for (Var alias : aliasMap.get(loadBase)) {
-                    for (StoreArray storeArray : alias.getStoreArrays()) {
-                        Var right = storeArray.getRValue();
-                        Var storeIndex = storeArray.getArrayAccess().getIndex();
-
-                        Value rightValue = solver.getResult().getInFact(storeArray).get(right);
-                        Value storeIndexValue = solver.getResult().getInFact(storeArray).get(storeIndex);
-                        if (isArrayAlias(loadIndexValue, storeIndexValue)) {
-                            leftValue = cp.meetValue(leftValue, rightValue);
-                        }
+                for (StoreArray storeArray : getAliasedStores(loadArray)) {
+                    Var right = storeArray.getRValue();
+                    Var storeIndex = storeArray.getArrayAccess().getIndex();
 
+                    Value rightValue = solver.getResult().getInFact(storeArray).get(right);
+                    Value storeIndexValue = solver.getResult().getInFact(storeArray).get(storeIndex);
+                    if (isArrayAlias(loadIndexValue, storeIndexValue)) {
+                        leftValue = cp.meetValue(leftValue, rightValue);
                     }
                 }
                 out.update(left, leftValue);
@@ -272,21 +319,16 @@ public class InterConstantPropagation extends
 
             Var right = storeArray.getRValue();
             Var storeIndex = storeArray.getArrayAccess().getIndex();
-            Var storeBase = storeArray.getArrayAccess().getBase();
 
             if(ConstantPropagation.canHoldInt(right)){
                 Value rightValue = in.get(right);
                 Value storeIndexValue = in.get(storeIndex);
 
-                for(Var alias : aliasMap.get(storeBase)){
-                    for(LoadArray loadArray : alias.getLoadArrays()){
-                        Var left = loadArray.getLValue();
-                        Var loadIndex = loadArray.getArrayAccess().getIndex();
-                        Value leftValue = solver.getResult().getInFact(loadArray).get(left);
-                        Value loadIndexValue = solver.getResult().getInFact(loadArray).get(loadIndex);
-                        if(isArrayAlias(storeIndexValue, loadIndexValue)){
-                            solver.getWorkList().add(loadArray);
-                        }
+                for(LoadArray loadArray : getAliasedLoads(storeArray)){
+                    Var loadIndex = loadArray.getArrayAccess().getIndex();
+                    Value loadIndexValue = solver.getResult().getInFact(loadArray).get(loadIndex);
+                    if(isArrayAlias(storeIndexValue, loadIndexValue)){
+                        solver.getWorkList().add(loadArray);
                     }
                 }
             }
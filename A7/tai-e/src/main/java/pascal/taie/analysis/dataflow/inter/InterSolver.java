@@ -26,7 +26,6 @@ import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.util.collection.SetQueue;
 
-import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -83,7 +82,8 @@ class InterSolver<Method, Node, Fact> {
 
     private void doSolve() {
         // TODO - finish me
-        workList = new LinkedList<>(icfg.getNodes());
+        workList = InterWorkList.of(icfg);
+        workList.addAll(icfg.getNodes());
         while(!workList.isEmpty()) {
             Node node = workList.poll();
             Fact in_fact = result.getInFact(node);
@@ -94,11 +94,7 @@ class InterSolver<Method, Node, Fact> {
             });
             Fact out_fact = result.getOutFact(node);
             if(analysis.transferNode(node, in_fact, out_fact)) {
-                for(Node succ : icfg.getSuccsOf(node)) {
-                    if(!workList.contains(succ)) {
-                        workList.add(succ);
-                    }
-                }
+                workList.addAll(icfg.getSuccsOf(node));
             }
         }
     }
@@ -0,0 +1,168 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Alias relation of variables computed from pointer analysis result.
+ * Two variables are aliases if their points-to sets overlap, so the
+ * relation is represented by the variables pointing to each object,
+ * and alias pairs are never materialized.
+ */
+class VarAliases {
+
+    private final PointerAnalysisResult pta;
+
+    private final MultiMap<Obj, Var> objToVars = Maps.newMultiMap();
+
+    VarAliases(PointerAnalysisResult pta) {
+        this.pta = pta;
+        for (Var var : pta.getVars()) {
+            for (Obj obj : pta.getPointsToSet(var)) {
+                objToVars.put(obj, var);
+            }
+        }
+    }
+
+    /**
+     * @return true if given variables may point to the same object.
+     */
+    boolean mayAlias(Var v1, Var v2) {
+        Set<Obj> pts1 = pta.getPointsToSet(v1);
+        Set<Obj> pts2 = pta.getPointsToSet(v2);
+        if (pts1.size() > pts2.size()) {
+            Set<Obj> tmp = pts1;
+            pts1 = pts2;
+            pts2 = tmp;
+        }
+        for (Obj obj : pts1) {
+            if (pts2.contains(obj)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return unmodifiable view of the aliases of given variable,
+     * including itself if it points to any object.
+     */
+    Set<Var> aliasesOf(Var var) {
+        Set<Obj> pts = pta.getPointsToSet(var);
+        if (pts.isEmpty()) {
+            return Set.of();
+        } else if (pts.size() == 1) {
+            return Collections.unmodifiableSet(
+                    objToVars.get(pts.iterator().next()));
+        } else {
+            return new AliasSet(var, pts);
+        }
+    }
+
+    /**
+     * Union of the variables pointing to the objects of a points-to set.
+     * The union is iterated lazily, and the variables reached from
+     * multiple objects are skipped after their first occurrences.
+     */
+    private class AliasSet extends AbstractSet<Var> {
+
+        private final Var var;
+
+        private final Set<Obj> pts;
+
+        private AliasSet(Var var, Set<Obj> pts) {
+            this.var = var;
+            this.pts = pts;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Var v && mayAlias(var, v);
+        }
+
+        @Override
+        public Iterator<Var> iterator() {
+            return new Iterator<>() {
+
+                private final Iterator<Obj> objIter = pts.iterator();
+
+                private Iterator<Var> varIter = Collections.emptyIterator();
+
+                private final Set<Var> visited = Sets.newHybridSet();
+
+                private Var next = advance();
+
+                private Var advance() {
+                    while (true) {
+                        while (varIter.hasNext()) {
+                            Var v = varIter.next();
+                            if (visited.add(v)) {
+                                return v;
+                            }
+                        }
+                        if (!objIter.hasNext()) {
+                            return null;
+                        }
+                        varIter = objToVars.get(objIter.next()).iterator();
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Var next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Var v = next;
+                    next = advance();
+                    return v;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Iterator<Var> it = iterator(); it.hasNext(); it.next()) {
+                ++size;
+            }
+            return size;
+        }
+    }
+}
@@ -54,6 +54,16 @@ public class InterCPAliasTest {
         test("ArrayLoops");
     }
 
+    @Test
+    public void testArrayAliases() {
+        test("ArrayAliases");
+    }
+
+    @Test
+    public void testArrayParamAliases() {
+        test("ArrayParamAliases");
+    }
+
     @Test
     public void testInstanceField() {
         test("InstanceField");
@@ -0,0 +1,19 @@
+class ArrayAliases {
+
+    public static void main(String[] args) {
+        int[] a = new int[2];
+        int[] b = new int[2];
+        int[] c;
+        if (args.length > 0) {
+            c = a;
+        } else {
+            c = b;
+        }
+        a[0] = 1;
+        b[0] = 3;
+        c[1] = 2;
+        int x = a[0];
+        int y = b[1];
+        int z = c[0];
+    }
+}
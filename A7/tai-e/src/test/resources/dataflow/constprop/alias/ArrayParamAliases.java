@@ -0,0 +1,14 @@
+class ArrayParamAliases {
+
+    public static void main(String[] args) {
+        int[] a = new int[1];
+        int[] b = new int[1];
+        set(a, 0, 1);
+        set(b, 0, 1);
+        int x = a[0];
+    }
+
+    static void set(int[] arr, int i, int v) {
+        arr[i] = v;
+    }
+}
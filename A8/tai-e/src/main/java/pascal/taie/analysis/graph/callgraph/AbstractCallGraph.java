@@ -30,7 +30,8 @@ import pascal.taie.util.collection.Views;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
@@ -52,6 +53,32 @@ public abstract class AbstractCallGraph<CallSite, Method>
     protected final Set<Method> entryMethods = Sets.newSet();
     protected final Set<Method> reachableMethods = Sets.newSet();
 
+    /**
+     * Caches of the results of the queries on the call graph as
+     * {@link pascal.taie.util.graph.Graph}, so that repeated queries
+     * do not build new sets. The caches are cleared when the number of
+     * edges changes, i.e., when new edges are added to the call graph,
+     * or explicitly by {@link #invalidateCaches()}.
+     */
+    private final Map<Method, Set<Method>> succsCache = Maps.newMap();
+    private final Map<Method, Set<Method>> predsCache = Maps.newMap();
+    private final Map<Method, Set<MethodEdge<CallSite, Method>>> outEdgesCache = Maps.newMap();
+    private final Map<Method, Set<MethodEdge<CallSite, Method>>> inEdgesCache = Maps.newMap();
+
+    /**
+     * Number of edges when the caches are filled.
+     */
+    private int cachedEdges = -1;
+
+    /**
+     * Clears the query caches. Subclasses that remove edges must call
+     * this, as the number of edges may be the same after removal and
+     * further additions.
+     */
+    protected void invalidateCaches() {
+        cachedEdges = -1;
+    }
+
     @Override
     public Set<CallSite> getCallersOf(Method callee) {
         return Views.toMappedSet(calleeToEdges.get(callee), Edge::getCallSite);
@@ -64,9 +91,7 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getCalleesOfM(Method caller) {
-        return callSitesIn(caller)
-                .flatMap(cs -> getCalleesOf(cs).stream())
-                .collect(Collectors.toUnmodifiableSet());
+        return getSuccsOf(caller);
     }
 
     @Override
@@ -133,38 +158,86 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
-        return getCallersOf(method)
-                .stream()
-                .map(cs -> new MethodEdge<>(getContainerOf(cs), method, cs))
-                .collect(Collectors.toUnmodifiableSet());
+        return getCached(inEdgesCache, method, m -> {
+            Set<MethodEdge<CallSite, Method>> edges = Sets.newHybridSet();
+            forEachCaller(m, (cs, caller) -> edges.add(new MethodEdge<>(caller, m, cs)));
+            return edges;
+        });
     }
 
     @Override
     public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
-        return callSitesIn(method)
-                .flatMap(cs -> getCalleesOf(cs)
-                        .stream()
-                        .map(callee -> new MethodEdge<>(method, callee, cs)))
-                .collect(Collectors.toUnmodifiableSet());
+        return getCached(outEdgesCache, method, m -> {
+            Set<MethodEdge<CallSite, Method>> edges = Sets.newHybridSet();
+            forEachCallee(m, (cs, callee) -> edges.add(new MethodEdge<>(m, callee, cs)));
+            return edges;
+        });
     }
 
     @Override
     public Set<Method> getPredsOf(Method node) {
-        return getCallersOf(node)
-                .stream()
-                .map(this::getContainerOf)
-                .collect(Collectors.toUnmodifiableSet());
+        return getCached(predsCache, node, m -> {
+            Set<Method> preds = Sets.newHybridSet();
+            forEachCaller(m, (cs, caller) -> preds.add(caller));
+            return preds;
+        });
     }
 
     @Override
     public Set<Method> getSuccsOf(Method node) {
-        return callSitesIn(node)
-                .flatMap(cs -> getCalleesOf(cs).stream())
-                .collect(Collectors.toUnmodifiableSet());
+        return getCached(succsCache, node, m -> {
+            Set<Method> succs = Sets.newHybridSet();
+            forEachCallee(m, (cs, callee) -> succs.add(callee));
+            return succs;
+        });
+    }
+
+    private <V> Set<V> getCached(Map<Method, Set<V>> cache, Method method,
+                                 Function<Method, Set<V>> compute) {
+        int edges = getNumberOfEdges();
+        if (edges != cachedEdges) {
+            succsCache.clear();
+            predsCache.clear();
+            outEdgesCache.clear();
+            inEdgesCache.clear();
+            cachedEdges = edges;
+        }
+        Set<V> result = cache.get(method);
+        if (result == null) {
+            result = Collections.unmodifiableSet(compute.apply(method));
+            cache.put(method, result);
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachCallee(Method caller, BiConsumer<CallSite, Method> action) {
+        for (CallSite callSite : getCallSitesIn(caller)) {
+            for (Edge<CallSite, Method> edge : callSiteToEdges.get(callSite)) {
+                action.accept(callSite, edge.getCallee());
+            }
+        }
+    }
+
+    @Override
+    public void forEachCaller(Method callee, BiConsumer<CallSite, Method> action) {
+        for (Edge<CallSite, Method> edge : calleeToEdges.get(callee)) {
+            CallSite callSite = edge.getCallSite();
+            action.accept(callSite, getContainerOf(callSite));
+        }
     }
 
     @Override
     public Set<Method> getNodes() {
         return Collections.unmodifiableSet(reachableMethods);
     }
+
+    /**
+     * @return an immutable snapshot of this call graph in compact form,
+     * which is cheaper to keep and to query than this call graph,
+     * for the clients which do not modify the call graph.
+     */
+    public CallGraph<CallSite, Method> freeze() {
+        return new FrozenCallGraph<>(this);
+    }
 }
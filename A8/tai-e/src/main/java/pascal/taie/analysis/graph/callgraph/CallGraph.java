@@ -26,6 +26,7 @@ import pascal.taie.analysis.StmtResult;
 import pascal.taie.util.graph.Graph;
 
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
 /**
@@ -68,6 +69,31 @@ public interface CallGraph<CallSite, Method> extends Graph<Method>, StmtResult<S
         return getCallSitesIn(method).stream();
     }
 
+    /**
+     * Performs the given action for each call edge out of the given method,
+     * with the call site and the callee of the edge. Different from
+     * {@link #getSuccsOf(Object)}, this method does not create any set.
+     */
+    default void forEachCallee(Method caller, BiConsumer<CallSite, Method> action) {
+        for (CallSite callSite : getCallSitesIn(caller)) {
+            for (Method callee : getCalleesOf(callSite)) {
+                action.accept(callSite, callee);
+            }
+        }
+    }
+
+    /**
+     * Performs the given action for each call edge into the given method,
+     * with the call site and the caller (i.e., the container of the call site)
+     * of the edge. Different from {@link #getPredsOf(Object)}, this method
+     * does not create any set.
+     */
+    default void forEachCaller(Method callee, BiConsumer<CallSite, Method> action) {
+        for (CallSite callSite : getCallersOf(callee)) {
+            action.accept(callSite, getContainerOf(callSite));
+        }
+    }
+
     /**
      * @return the call edges out of the given call site.
      */
@@ -60,6 +60,10 @@ public class CallGraphBuilder extends ProgramAnalysis {
                     "Unknown call graph building algorithm: " + algorithm);
         };
         CallGraph<Invoke, JMethod> callGraph = builder.build();
+        if (getOptions().getBooleanOrDefault("freeze", false) &&
+                callGraph instanceof AbstractCallGraph<Invoke, JMethod> cg) {
+            callGraph = cg.freeze();
+        }
         takeAction(callGraph);
         return callGraph;
     }
@@ -0,0 +1,517 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph in compressed sparse row (CSR) form.
+ * <p>
+ * Methods and call sites are numbered by ints, and the call sites of
+ * each method are numbered contiguously, so that the call sites of
+ * a method are a range of ids. The callees of call sites, the callers
+ * of methods, and the successors and predecessors of methods are stored
+ * in flat int arrays indexed by offset arrays. No {@link Edge} object is
+ * kept; edges are created on demand when they are queried.
+ * <p>
+ * This call graph is created by {@link AbstractCallGraph#freeze()},
+ * and it is meant for read-only clients after the call graph is built.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+class FrozenCallGraph<CallSite, Method> implements CallGraph<CallSite, Method> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final Object[] methods;
+
+    private final Map<Method, Integer> methodIds;
+
+    private final int[] entries;
+
+    private final Object[] callSites;
+
+    private final Map<CallSite, Integer> callSiteIds;
+
+    private final int[] containers;
+
+    /**
+     * The call sites of method i are in [callSiteStarts[i], callSiteStarts[i + 1]).
+     */
+    private final int[] callSiteStarts;
+
+    /**
+     * The edges out of call site i are in [calleeOffsets[i], calleeOffsets[i + 1])
+     * of {@link #callees}, {@link #kinds} and {@link #edgeCallSites}.
+     */
+    private final int[] calleeOffsets;
+
+    private final int[] callees;
+
+    private final byte[] kinds;
+
+    /**
+     * The call site of each edge.
+     */
+    private final int[] edgeCallSites;
+
+    /**
+     * The edges into method i are in [callerOffsets[i], callerOffsets[i + 1])
+     * of {@link #callerEdges}, which are indexes of {@link #callees}.
+     */
+    private final int[] callerOffsets;
+
+    private final int[] callerEdges;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    FrozenCallGraph(CallGraph<CallSite, Method> callGraph) {
+        // number methods and call sites
+        methods = callGraph.reachableMethods().toArray();
+        int nMethods = methods.length;
+        methodIds = Maps.newMap(nMethods);
+        for (int i = 0; i < nMethods; ++i) {
+            methodIds.put(getMethod(i), i);
+        }
+        entries = callGraph.entryMethods()
+                .mapToInt(methodIds::get)
+                .toArray();
+        List<CallSite> callSiteList = new ArrayList<>();
+        callSiteStarts = new int[nMethods + 1];
+        for (int i = 0; i < nMethods; ++i) {
+            callSiteStarts[i] = callSiteList.size();
+            callSiteList.addAll(callGraph.getCallSitesIn(getMethod(i)));
+        }
+        int nCallSites = callSiteList.size();
+        callSiteStarts[nMethods] = nCallSites;
+        callSites = callSiteList.toArray();
+        callSiteIds = Maps.newMap(nCallSites);
+        containers = new int[nCallSites];
+        for (int m = 0; m < nMethods; ++m) {
+            for (int i = callSiteStarts[m]; i < callSiteStarts[m + 1]; ++i) {
+                callSiteIds.put(getCallSite(i), i);
+                containers[i] = m;
+            }
+        }
+        // build CSR of call edges
+        calleeOffsets = new int[nCallSites + 1];
+        IntList calleeList = new IntList();
+        IntList kindList = new IntList();
+        int[] inDegrees = new int[nMethods];
+        for (int i = 0; i < nCallSites; ++i) {
+            calleeOffsets[i] = calleeList.size;
+            callGraph.edgesOutOf(getCallSite(i)).forEach(edge -> {
+                int callee = methodIds.get(edge.getCallee());
+                calleeList.add(callee);
+                kindList.add(edge.getKind().ordinal());
+                ++inDegrees[callee];
+            });
+        }
+        calleeOffsets[nCallSites] = calleeList.size;
+        callees = calleeList.toArray();
+        kinds = new byte[callees.length];
+        edgeCallSites = new int[callees.length];
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            for (int e = calleeOffsets[cs]; e < calleeOffsets[cs + 1]; ++e) {
+                kinds[e] = (byte) kindList.get(e);
+                edgeCallSites[e] = cs;
+            }
+        }
+        callerOffsets = toOffsets(inDegrees);
+        callerEdges = new int[callees.length];
+        int[] next = Arrays.copyOf(callerOffsets, nMethods);
+        for (int e = 0; e < callees.length; ++e) {
+            callerEdges[next[callees[e]]++] = e;
+        }
+        // build CSR of method-level successors and predecessors
+        IntList succList = new IntList();
+        succOffsets = new int[nMethods + 1];
+        int[] predCounts = new int[nMethods];
+        for (int m = 0; m < nMethods; ++m) {
+            succOffsets[m] = succList.size;
+            int[] targets = Arrays.copyOfRange(callees,
+                    calleeOffsets[callSiteStarts[m]],
+                    calleeOffsets[callSiteStarts[m + 1]]);
+            int[] distinct = IntStream.of(targets).distinct().toArray();
+            for (int succ : distinct) {
+                succList.add(succ);
+                ++predCounts[succ];
+            }
+        }
+        succOffsets[nMethods] = succList.size;
+        succs = succList.toArray();
+        predOffsets = toOffsets(predCounts);
+        preds = new int[succs.length];
+        next = Arrays.copyOf(predOffsets, nMethods);
+        for (int m = 0; m < nMethods; ++m) {
+            for (int i = succOffsets[m]; i < succOffsets[m + 1]; ++i) {
+                preds[next[succs[i]]++] = m;
+            }
+        }
+    }
+
+    /**
+     * Converts counts to offsets, whose last element is the total count.
+     */
+    private static int[] toOffsets(int[] counts) {
+        int[] offsets = new int[counts.length + 1];
+        for (int i = 0; i < counts.length; ++i) {
+            offsets[i + 1] = offsets[i] + counts[i];
+        }
+        return offsets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Method getMethod(int id) {
+        return (Method) methods[id];
+    }
+
+    @SuppressWarnings("unchecked")
+    private CallSite getCallSite(int id) {
+        return (CallSite) callSites[id];
+    }
+
+    /**
+     * @return id of given object if it is a method in this call graph,
+     * otherwise -1.
+     */
+    private int getMethodId(Object o) {
+        Integer m = methodIds.get(o);
+        return m == null ? -1 : m;
+    }
+
+    /**
+     * @return id of given object if it is a call site in this call graph,
+     * otherwise -1.
+     */
+    private int getCallSiteId(Object o) {
+        Integer cs = callSiteIds.get(o);
+        return cs == null ? -1 : cs;
+    }
+
+    private Edge<CallSite, Method> getEdge(int e) {
+        return new Edge<>(KINDS[kinds[e]], getCallSite(edgeCallSites[e]),
+                getMethod(callees[e]));
+    }
+
+    @Override
+    public Set<CallSite> getCallersOf(Method callee) {
+        Integer m = methodIds.get(callee);
+        if (m == null) {
+            return Set.of();
+        }
+        return new IdSet<>(callerOffsets[m], callerOffsets[m + 1],
+                i -> edgeCallSites[callerEdges[i]], this::getCallSite,
+                this::getCallSiteId);
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(CallSite callSite) {
+        Integer cs = callSiteIds.get(callSite);
+        if (cs == null) {
+            return Set.of();
+        }
+        return new IdSet<>(calleeOffsets[cs], calleeOffsets[cs + 1],
+                i -> callees[i], this::getMethod, this::getMethodId);
+    }
+
+    @Override
+    public Set<Method> getCalleesOfM(Method caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public Method getContainerOf(CallSite callSite) {
+        Integer cs = callSiteIds.get(callSite);
+        return cs == null ? null : getMethod(containers[cs]);
+    }
+
+    @Override
+    public Set<CallSite> getCallSitesIn(Method method) {
+        Integer m = methodIds.get(method);
+        if (m == null) {
+            return Set.of();
+        }
+        return new IdSet<>(callSiteStarts[m], callSiteStarts[m + 1],
+                null, this::getCallSite, this::getCallSiteId);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesOutOf(CallSite callSite) {
+        Integer cs = callSiteIds.get(callSite);
+        if (cs == null) {
+            return Stream.of();
+        }
+        return IntStream.range(calleeOffsets[cs], calleeOffsets[cs + 1])
+                .mapToObj(this::getEdge);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesInTo(Method method) {
+        Integer m = methodIds.get(method);
+        if (m == null) {
+            return Stream.of();
+        }
+        return IntStream.range(callerOffsets[m], callerOffsets[m + 1])
+                .mapToObj(i -> getEdge(callerEdges[i]));
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edges() {
+        return IntStream.range(0, callees.length).mapToObj(this::getEdge);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return callees.length;
+    }
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return IntStream.of(entries).mapToObj(this::getMethod);
+    }
+
+    @Override
+    public Stream<Method> reachableMethods() {
+        return IntStream.range(0, methods.length).mapToObj(this::getMethod);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(Method method) {
+        return methodIds.containsKey(method);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(Method node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(Method source, Method target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        Integer m = methodIds.get(method);
+        if (m == null) {
+            return Set.of();
+        }
+        return new IdSet<>(callerOffsets[m], callerOffsets[m + 1],
+                i -> callerEdges[i], e -> new MethodEdge<>(
+                        getMethod(containers[edgeCallSites[e]]), method,
+                        getCallSite(edgeCallSites[e])), null);
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        Integer m = methodIds.get(method);
+        if (m == null) {
+            return Set.of();
+        }
+        int start = calleeOffsets[callSiteStarts[m]];
+        return new IdSet<>(start, calleeOffsets[callSiteStarts[m + 1]], null, e ->
+                new MethodEdge<>(method, getMethod(callees[e]),
+                        getCallSite(edgeCallSites[e])), null);
+    }
+
+    @Override
+    public Set<Method> getPredsOf(Method node) {
+        Integer m = methodIds.get(node);
+        if (m == null) {
+            return Set.of();
+        }
+        return new IdSet<>(predOffsets[m], predOffsets[m + 1],
+                i -> preds[i], this::getMethod, this::getMethodId);
+    }
+
+    @Override
+    public Set<Method> getSuccsOf(Method node) {
+        Integer m = methodIds.get(node);
+        if (m == null) {
+            return Set.of();
+        }
+        return new IdSet<>(succOffsets[m], succOffsets[m + 1],
+                i -> succs[i], this::getMethod, this::getMethodId);
+    }
+
+    @Override
+    public Set<Method> getNodes() {
+        return new IdSet<>(0, methods.length, null, this::getMethod,
+                this::getMethodId);
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return callSiteIds.containsKey(stmt);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Method> getResult(Stmt stmt) {
+        return getCalleesOf((CallSite) stmt);
+    }
+
+    /**
+     * Unmodifiable set view of the elements mapped from a range of ints.
+     * <p>
+     * {@link #contains(Object)} compares ids instead of elements: it takes
+     * constant time if the ids of the elements are the range itself,
+     * otherwise it scans the ids in the range, which is as long as the
+     * degree of the queried node. Sets of edges have no ids, and their
+     * {@code contains} creates and compares the edges one by one.
+     */
+    private static class IdSet<E> extends AbstractSet<E> {
+
+        private final int start;
+
+        private final int end;
+
+        /**
+         * Maps an int in the range to the id of its element,
+         * or null if the int itself is the id.
+         */
+        private final IntUnaryOperator idAt;
+
+        private final IntFunction<E> element;
+
+        /**
+         * Maps an object to its id, or -1 if it is not an element of
+         * the call graph. Null if the elements have no ids.
+         */
+        private final ToIntFunction<Object> idOf;
+
+        private IdSet(int start, int end, IntUnaryOperator idAt,
+                      IntFunction<E> element, ToIntFunction<Object> idOf) {
+            this.start = start;
+            this.end = end;
+            this.idAt = idAt;
+            this.element = element;
+            this.idOf = idOf;
+        }
+
+        private int getId(int i) {
+            return idAt == null ? i : idAt.applyAsInt(i);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (idOf == null) {
+                return super.contains(o);
+            }
+            int id = idOf.applyAsInt(o);
+            if (id < 0) {
+                return false;
+            }
+            if (idAt == null) {
+                return start <= id && id < end;
+            }
+            for (int i = start; i < end; ++i) {
+                if (idAt.applyAsInt(i) == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = start;
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return element.apply(getId(next++));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static class IntList {
+
+        private int[] elements = new int[16];
+
+        private int size = 0;
+
+        private void add(int e) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = e;
+        }
+
+        private int get(int i) {
+            return elements[i];
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+}
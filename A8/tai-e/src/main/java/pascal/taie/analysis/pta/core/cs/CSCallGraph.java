@@ -34,8 +34,11 @@ import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
 /**
@@ -45,6 +48,15 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private final CSManager csManager;
 
+    /**
+     * Log of the edges in the order they are added, so that the edges
+     * are streamed and counted without traversing the call graph, and
+     * the clients can fetch the edges added since a cursor. The log is
+     * append-only except for {@link #removeReachableMethods(Set)},
+     * which invalidates the cursors obtained before it.
+     */
+    private final List<Edge<CSCallSite, CSMethod>> edgeLog = new ArrayList<>();
+
     public CSCallGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -64,8 +76,13 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
      */
     public boolean addReachableMethod(CSMethod csMethod) {
         if (reachableMethods.add(csMethod)) {
-            callSitesIn(csMethod).forEach(csCallSite ->
-                    csCallSite.setContainer(csMethod));
+            // the call sites of reachable methods are indexed,
+            // so that getCallSitesIn() does not scan the IR again
+            Set<CSCallSite> callSites = collectCallSitesIn(csMethod);
+            callSites.forEach(csCallSite -> {
+                csCallSite.setContainer(csMethod);
+                callSitesIn.put(csMethod, csCallSite);
+            });
             return true;
         } else {
             return false;
@@ -82,12 +99,41 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
     public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
+            edgeLog.add(edge);
             return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * Removes given methods from the reachable methods of this call graph,
+     * together with the call edges to them and the call edges from
+     * the call sites in them. The entry methods are kept as entries,
+     * but are also removed from the reachable methods.
+     *
+     * @return the removed call edges.
+     */
+    public List<Edge<CSCallSite, CSMethod>> removeReachableMethods(Set<CSMethod> csMethods) {
+        List<Edge<CSCallSite, CSMethod>> removed = new ArrayList<>();
+        edgeLog.removeIf(edge -> {
+            if (csMethods.contains(edge.getCallee()) ||
+                    csMethods.contains(edge.getCallSite().getContainer())) {
+                edge.getCallSite().removeEdge(edge);
+                edge.getCallee().removeEdge(edge);
+                removed.add(edge);
+                return true;
+            }
+            return false;
+        });
+        for (CSMethod csMethod : csMethods) {
+            reachableMethods.remove(csMethod);
+            callSitesIn.removeAll(csMethod);
+        }
+        invalidateCaches();
+        return removed;
+    }
+
     @Override
     public Set<CSCallSite> getCallersOf(CSMethod callee) {
         return Views.toMappedSet(callee.getEdges(), Edge::getCallSite);
@@ -105,6 +151,13 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Set<CSCallSite> getCallSitesIn(CSMethod csMethod) {
+        if (reachableMethods.contains(csMethod)) {
+            return callSitesIn.get(csMethod);
+        }
+        return collectCallSitesIn(csMethod);
+    }
+
+    private Set<CSCallSite> collectCallSitesIn(CSMethod csMethod) {
         JMethod method = csMethod.getMethod();
         Context context = csMethod.getContext();
         Set<CSCallSite> callSites = Sets.newHybridOrderedSet();
@@ -117,6 +170,23 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
         return Collections.unmodifiableSet(callSites);
     }
 
+    @Override
+    public void forEachCallee(CSMethod caller, BiConsumer<CSCallSite, CSMethod> action) {
+        for (CSCallSite csCallSite : getCallSitesIn(caller)) {
+            for (Edge<CSCallSite, CSMethod> edge : csCallSite.getEdges()) {
+                action.accept(csCallSite, edge.getCallee());
+            }
+        }
+    }
+
+    @Override
+    public void forEachCaller(CSMethod callee, BiConsumer<CSCallSite, CSMethod> action) {
+        for (Edge<CSCallSite, CSMethod> edge : callee.getEdges()) {
+            CSCallSite csCallSite = edge.getCallSite();
+            action.accept(csCallSite, csCallSite.getContainer());
+        }
+    }
+
     @Override
     public Stream<Edge<CSCallSite, CSMethod>> edgesOutOf(CSCallSite csCallSite) {
         return csCallSite.getEdges().stream();
@@ -129,9 +199,21 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Stream<Edge<CSCallSite, CSMethod>> edges() {
-        return reachableMethods.stream()
-                .flatMap(this::callSitesIn)
-                .flatMap(this::edgesOutOf);
+        return edgeLog.stream();
+    }
+
+    /**
+     * @return the edges added since given cursor, i.e., the edges after the
+     * first {@code cursor} edges. The current cursor is obtained by
+     * {@link #getNumberOfEdges()}.
+     */
+    public Stream<Edge<CSCallSite, CSMethod>> edgesSince(int cursor) {
+        return edgeLog.subList(cursor, edgeLog.size()).stream();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edgeLog.size();
     }
 
     @Override
@@ -60,7 +60,9 @@ public class CSCallSite extends AbstractCSElement {
     }
 
     public void setContainer(CSMethod container) {
-        assert this.container == null; // should be set only once
+        // should be set only once, but the same container is set again
+        // when its method is reachable again after incremental retraction
+        assert this.container == null || this.container == container;
         this.container = container;
     }
 
@@ -72,6 +74,10 @@ public class CSCallSite extends AbstractCSElement {
         return edges.add(edge);
     }
 
+    public boolean removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        return edges.remove(edge);
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(edges);
     }
@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Constants and helpers of the checkpoint format shared by
+ * {@link CheckpointWriter} and {@link CheckpointReader}.
+ * <p>
+ * A checkpoint is a stream of records, each starts with a tag byte.
+ * The definition records ({@code DEF_*}) define the program elements and
+ * CS elements, which are numbered by kind in the order of definition and
+ * referred to by the later records via their numbers. The program elements
+ * are identified by signatures and IR indexes, so that they are resolved
+ * in a new run on the same program. The data records ({@code DATA_*})
+ * describe the entry and reachable methods, call edges, PFG edges,
+ * points-to sets and work-list entries, and the methods declared in the
+ * classes of the objects, by which the added and deleted methods that
+ * change the dispatch of virtual calls are detected. All integers except
+ * the header and the fingerprints are written as unsigned varints.
+ */
+final class CheckpointFormat {
+
+    private CheckpointFormat() {
+    }
+
+    /**
+     * Size of the buffers of checkpoint streams.
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    static final int MAGIC = 0x54414943; // "TAIC"
+
+    static final int VERSION = 3;
+
+    // definition records
+    static final int DEF_METHOD = 1;
+    static final int DEF_FIELD = 2;
+    static final int DEF_TYPE = 3;
+    static final int DEF_STMT = 4;
+    static final int DEF_VAR = 5;
+    static final int DEF_OBJ = 6;
+    static final int DEF_CONTEXT = 7;
+    static final int DEF_CS_OBJ = 8;
+    static final int DEF_CS_METHOD = 9;
+    static final int DEF_CS_CALL_SITE = 10;
+    static final int DEF_POINTER = 11;
+
+    // data records
+    static final int DATA_ENTRY = 20;
+    static final int DATA_REACHABLE = 21;
+    static final int DATA_CALL_EDGE = 22;
+    static final int DATA_PFG_EDGE = 23;
+    static final int DATA_POINTS_TO = 24;
+    static final int DATA_WORK_ENTRY = 25;
+    static final int DATA_METHODS = 26;
+    static final int END = 0;
+
+    // kinds of objects
+    static final int OBJ_NEW = 0;
+    static final int OBJ_MOCK = 1;
+
+    // kinds of context elements
+    static final int ELEM_STMT = 0;
+    static final int ELEM_OBJ = 1;
+    static final int ELEM_TYPE = 2;
+
+    // kinds of pointers
+    static final int PTR_VAR = 0;
+    static final int PTR_STATIC_FIELD = 1;
+    static final int PTR_INSTANCE_FIELD = 2;
+    static final int PTR_ARRAY_INDEX = 3;
+
+    /**
+     * @return a 64-bit FNV-1a hash of the IR of given method, by which
+     * the changes of the method are detected.
+     */
+    static long fingerprint(JMethod method) {
+        long hash = 0xcbf29ce484222325L;
+        if (method.isAbstract()) {
+            return hash;
+        }
+        IR ir = method.getIR();
+        for (Var var : ir.getVars()) {
+            hash = hash(hash, var.getName() + ':' + var.getType());
+        }
+        for (Stmt stmt : ir.getStmts()) {
+            hash = hash(hash, stmt.toString());
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            hash = (hash ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        // separates the strings
+        return (hash ^ '\n') * 0x100000001b3L;
+    }
+}
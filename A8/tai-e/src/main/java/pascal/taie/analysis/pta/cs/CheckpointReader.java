@@ -0,0 +1,422 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Sets;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static pascal.taie.analysis.pta.cs.CheckpointFormat.*;
+
+/**
+ * Reads a checkpoint of the solver state written by {@link CheckpointWriter}
+ * into empty solver structures. The format is described in
+ * {@link CheckpointFormat}.
+ * <p>
+ * Each method is defined with a fingerprint of its IR. A checkpoint can be
+ * restored after the program is edited: the methods whose fingerprints
+ * differ, or which are deleted, are changed. Their statements and variables
+ * cannot be resolved by IR indexes any more, so every element which depends
+ * on them is stale and dropped with the records referring to it. The facts
+ * which may be derived from the dropped ones are returned as {@link Changes},
+ * from which the solver re-solves incrementally.
+ * <p>
+ * Methods added to the classes of the objects, e.g., new overriding methods,
+ * are not referred to by the checkpoint, but they may change the callees of
+ * virtual calls. They are detected by comparing the methods declared in the
+ * classes with the ones recorded in the checkpoint, and the methods containing
+ * the call sites of the added (or deleted) subsignatures are affected.
+ */
+final class CheckpointReader {
+
+    private final DataInputStream in;
+
+    private final HeapModel heapModel;
+
+    private final CSManager csManager;
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    private final List<JMethod> methods = new ArrayList<>();
+    private final List<JField> fields = new ArrayList<>();
+    private final List<Type> types = new ArrayList<>();
+    private final List<Stmt> stmts = new ArrayList<>();
+    private final List<Var> vars = new ArrayList<>();
+    private final List<Obj> objs = new ArrayList<>();
+    private final List<Context> contexts = new ArrayList<>();
+    private final List<CSObj> csObjs = new ArrayList<>();
+    private final List<CSMethod> csMethods = new ArrayList<>();
+    private final List<CSCallSite> csCallSites = new ArrayList<>();
+    private final List<Pointer> pointers = new ArrayList<>();
+
+    private final Set<JMethod> changedMethods = Sets.newSet();
+
+    private final Set<CSMethod> affectedMethods = Sets.newSet();
+
+    private final Set<Pointer> affectedPointers = Sets.newSet();
+
+    /**
+     * Subsignatures of the methods added to or deleted from the classes
+     * since the checkpoint was written.
+     */
+    private final Set<String> changedSubsignatures = Sets.newSet();
+
+    /**
+     * Changes of the program since the checkpoint was written.
+     *
+     * @param methods   the methods which are changed in the program.
+     * @param csMethods the CS methods whose facts may depend on
+     *                  the dropped stale records.
+     * @param pointers  the pointers whose points-to sets may depend on
+     *                  the dropped stale records.
+     */
+    record Changes(Set<JMethod> methods, Set<CSMethod> csMethods,
+                   Set<Pointer> pointers) {
+
+        boolean isEmpty() {
+            return methods.isEmpty() && csMethods.isEmpty() && pointers.isEmpty();
+        }
+    }
+
+    private CheckpointReader(DataInputStream in, HeapModel heapModel,
+                             CSManager csManager) {
+        this.in = in;
+        this.heapModel = heapModel;
+        this.csManager = csManager;
+    }
+
+    /**
+     * Restores the solver state in given file into given structures,
+     * which must be empty.
+     *
+     * @return the changes of the program since the checkpoint was written.
+     */
+    static Changes read(File file, HeapModel heapModel, CSManager csManager,
+                     CSCallGraph callGraph, PointerFlowGraph pointerFlowGraph,
+                     WorkList workList) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new AnalysisException(file + " is not a solver checkpoint");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new AnalysisException("Unsupported checkpoint version "
+                        + version + " of " + file);
+            }
+            CheckpointReader reader = new CheckpointReader(in, heapModel, csManager);
+            reader.doRead(callGraph, pointerFlowGraph, workList);
+            return new Changes(reader.changedMethods,
+                    reader.affectedMethods, reader.affectedPointers);
+        }
+    }
+
+    private void doRead(CSCallGraph callGraph, PointerFlowGraph pointerFlowGraph,
+                        WorkList workList) throws IOException {
+        int tag;
+        while ((tag = in.readUnsignedByte()) != END) {
+            // the stale elements are read as null
+            switch (tag) {
+                case DEF_METHOD -> methods.add(readMethod());
+                case DEF_FIELD -> fields.add(hierarchy.getField(in.readUTF()));
+                case DEF_TYPE -> types.add(World.get().getTypeSystem().getType(in.readUTF()));
+                case DEF_STMT -> {
+                    JMethod method = methods.get(readVarInt());
+                    int index = readVarInt();
+                    stmts.add(isStale(method) ? null : method.getIR().getStmt(index));
+                }
+                case DEF_VAR -> {
+                    JMethod method = methods.get(readVarInt());
+                    int index = readVarInt();
+                    vars.add(isStale(method) ? null : method.getIR().getVar(index));
+                }
+                case DEF_OBJ -> objs.add(readObj());
+                case DEF_CONTEXT -> contexts.add(readContext());
+                case DEF_CS_OBJ -> {
+                    Context context = contexts.get(readVarInt());
+                    Obj obj = objs.get(readVarInt());
+                    csObjs.add(context == null || obj == null ? null :
+                            csManager.getCSObj(context, obj));
+                }
+                case DEF_CS_METHOD -> {
+                    // the CS methods of changed methods are kept,
+                    // so that the solver can retract their facts
+                    Context context = contexts.get(readVarInt());
+                    JMethod method = methods.get(readVarInt());
+                    csMethods.add(context == null || method == null ? null :
+                            csManager.getCSMethod(context, method));
+                }
+                case DEF_CS_CALL_SITE -> {
+                    Context context = contexts.get(readVarInt());
+                    Invoke callSite = (Invoke) stmts.get(readVarInt());
+                    csCallSites.add(context == null || callSite == null ? null :
+                            csManager.getCSCallSite(context, callSite));
+                }
+                case DEF_POINTER -> pointers.add(readPointer());
+                case DATA_ENTRY -> {
+                    CSMethod csMethod = csMethods.get(readVarInt());
+                    if (csMethod != null) {
+                        callGraph.addEntryMethod(csMethod);
+                    }
+                }
+                case DATA_REACHABLE -> {
+                    CSMethod csMethod = csMethods.get(readVarInt());
+                    if (csMethod != null) {
+                        callGraph.addReachableMethod(csMethod);
+                    }
+                }
+                case DATA_CALL_EDGE -> {
+                    CallKind kind = CallKind.values()[readVarInt()];
+                    CSCallSite csCallSite = csCallSites.get(readVarInt());
+                    CSMethod csCallee = csMethods.get(readVarInt());
+                    if (csCallSite != null && csCallee != null) {
+                        callGraph.addEdge(new Edge<>(kind, csCallSite, csCallee));
+                    } else if (csCallee != null) {
+                        // the callee may be unreachable now
+                        affectedMethods.add(csCallee);
+                    } else if (csCallSite != null) {
+                        // the call site may be dispatched to other callees
+                        affectedMethods.add(csManager.getCSMethod(
+                                csCallSite.getContext(),
+                                csCallSite.getCallSite().getContainer()));
+                    }
+                }
+                case DATA_PFG_EDGE -> {
+                    Pointer source = pointers.get(readVarInt());
+                    Pointer target = pointers.get(readVarInt());
+                    if (source != null && target != null) {
+                        pointerFlowGraph.addEdge(source, target);
+                    } else if (target != null) {
+                        affectedPointers.add(target);
+                    }
+                }
+                case DATA_POINTS_TO -> {
+                    Pointer pointer = pointers.get(readVarInt());
+                    PointsToSet pts = readPointsToSet(pointer);
+                    if (pointer != null) {
+                        pointer.getPointsToSet().addAll(pts);
+                    }
+                }
+                case DATA_WORK_ENTRY -> {
+                    Pointer pointer = pointers.get(readVarInt());
+                    PointsToSet pts = readPointsToSet(pointer);
+                    if (pointer != null && !pts.isEmpty()) {
+                        workList.addEntry(pointer, pts);
+                    }
+                }
+                case DATA_METHODS -> readDeclaredMethods();
+                default -> throw new AnalysisException(
+                        "Unexpected record " + tag + " in checkpoint");
+            }
+        }
+        if (!changedSubsignatures.isEmpty()) {
+            // the virtual calls of changed subsignatures may be
+            // dispatched to other callees now
+            for (CSCallSite csCallSite : csCallSites) {
+                if (csCallSite != null && isDispatchChanged(csCallSite.getCallSite())) {
+                    affectedMethods.add(csManager.getCSMethod(
+                            csCallSite.getContext(),
+                            csCallSite.getCallSite().getContainer()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the methods declared in a class, and collects the subsignatures
+     * of the methods added to or deleted from the class.
+     */
+    private void readDeclaredMethods() throws IOException {
+        JClass jclass = hierarchy.getClass(in.readUTF());
+        int size = readVarInt();
+        Set<String> subsignatures = Sets.newSet(size);
+        for (int i = 0; i < size; ++i) {
+            subsignatures.add(in.readUTF());
+        }
+        if (jclass != null) {
+            for (JMethod method : jclass.getDeclaredMethods()) {
+                String subsignature = method.getSubsignature().toString();
+                if (!subsignatures.remove(subsignature)) {
+                    changedSubsignatures.add(subsignature);
+                }
+            }
+        }
+        changedSubsignatures.addAll(subsignatures);
+    }
+
+    private boolean isDispatchChanged(Invoke callSite) {
+        return (callSite.isVirtual() || callSite.isInterface()) &&
+                changedSubsignatures.contains(
+                        callSite.getMethodRef().getSubsignature().toString());
+    }
+
+    /**
+     * Reads a method definition.
+     *
+     * @return the method, or null if it is deleted from the program.
+     */
+    private JMethod readMethod() throws IOException {
+        JMethod method = hierarchy.getMethod(in.readUTF());
+        long fingerprint = in.readLong();
+        if (method != null && fingerprint(method) != fingerprint) {
+            changedMethods.add(method);
+        }
+        return method;
+    }
+
+    /**
+     * @return whether the IR indexes of given method are stale.
+     */
+    private boolean isStale(JMethod method) {
+        return method == null || changedMethods.contains(method);
+    }
+
+    private Obj readObj() throws IOException {
+        int kind = in.readUnsignedByte();
+        return switch (kind) {
+            case OBJ_NEW -> {
+                New alloc = (New) stmts.get(readVarInt());
+                yield alloc == null ? null : heapModel.getObj(alloc);
+            }
+            case OBJ_MOCK -> {
+                String desc = in.readUTF();
+                Stmt alloc = stmts.get(readVarInt());
+                Type type = types.get(readVarInt());
+                yield alloc == null ? null : new MockObj(desc, alloc, type);
+            }
+            default -> throw new AnalysisException(
+                    "Unexpected object kind " + kind + " in checkpoint");
+        };
+    }
+
+    private Context readContext() throws IOException {
+        Object[] elements = new Object[readVarInt()];
+        boolean stale = false;
+        for (int i = 0; i < elements.length; ++i) {
+            int kind = in.readUnsignedByte();
+            elements[i] = switch (kind) {
+                case ELEM_STMT -> stmts.get(readVarInt());
+                case ELEM_OBJ -> objs.get(readVarInt());
+                case ELEM_TYPE -> types.get(readVarInt());
+                default -> throw new AnalysisException(
+                        "Unexpected context element kind " + kind + " in checkpoint");
+            };
+            stale |= elements[i] == null;
+        }
+        return stale ? null : ListContext.make(elements);
+    }
+
+    private Pointer readPointer() throws IOException {
+        int kind = in.readUnsignedByte();
+        return switch (kind) {
+            case PTR_VAR -> {
+                Context context = contexts.get(readVarInt());
+                Var var = vars.get(readVarInt());
+                yield context == null || var == null ? null :
+                        csManager.getCSVar(context, var);
+            }
+            case PTR_STATIC_FIELD -> {
+                JField field = fields.get(readVarInt());
+                yield field == null ? null : csManager.getStaticField(field);
+            }
+            case PTR_INSTANCE_FIELD -> {
+                CSObj base = csObjs.get(readVarInt());
+                JField field = fields.get(readVarInt());
+                yield base == null || field == null ? null :
+                        csManager.getInstanceField(base, field);
+            }
+            case PTR_ARRAY_INDEX -> {
+                CSObj array = csObjs.get(readVarInt());
+                yield array == null ? null : csManager.getArrayIndex(array);
+            }
+            default -> throw new AnalysisException(
+                    "Unexpected pointer kind " + kind + " in checkpoint");
+        };
+    }
+
+    /**
+     * Reads a points-to set of given pointer, whose objects are written as
+     * the number of objects and the deltas of sorted ids. If the set contains
+     * stale objects, they are dropped and the pointer is affected.
+     */
+    private PointsToSet readPointsToSet(Pointer pointer) throws IOException {
+        PointsToSet pts = PointsToSetFactory.make();
+        int size = readVarInt();
+        int id = 0;
+        for (int i = 0; i < size; ++i) {
+            id += readVarInt();
+            CSObj csObj = csObjs.get(id);
+            if (csObj != null) {
+                pts.addObject(csObj);
+            } else if (pointer != null) {
+                affectedPointers.add(pointer);
+            }
+        }
+        return pts;
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
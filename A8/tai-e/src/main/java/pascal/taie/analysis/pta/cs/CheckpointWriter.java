@@ -0,0 +1,429 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.MergedObj;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.analysis.pta.cs.CheckpointFormat.*;
+
+/**
+ * Writes the solver state, i.e., the CS elements, call graph, PFG,
+ * points-to sets and work-list, to a checkpoint file in the format
+ * described in {@link CheckpointFormat}.
+ */
+final class CheckpointWriter {
+
+    private final DataOutputStream out;
+
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+    private final Map<JField, Integer> fieldIds = Maps.newMap();
+    private final Map<Type, Integer> typeIds = Maps.newMap();
+    private final Map<Stmt, Integer> stmtIds = Maps.newMap();
+    private final Map<Var, Integer> varIds = Maps.newMap();
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+    private final Map<Context, Integer> contextIds = Maps.newMap();
+    private final Map<CSObj, Integer> csObjIds = Maps.newMap();
+    private final Map<CSMethod, Integer> csMethodIds = Maps.newMap();
+    private final Map<CSCallSite, Integer> csCallSiteIds = Maps.newMap();
+    private final Map<Pointer, Integer> pointerIds = Maps.newMap();
+
+    /**
+     * Classes of the objects in the checkpoint.
+     */
+    private final Set<JClass> classes = Sets.newSet();
+
+    private CheckpointWriter(DataOutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes the solver state to given file. The state is first written
+     * to a temporary file which then replaces given file, so that
+     * an interrupted write does not destroy the previous checkpoint.
+     */
+    static void write(File file, CSManager csManager, CSCallGraph callGraph,
+                      PointerFlowGraph pointerFlowGraph, WorkList workList)
+            throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(temp.toFile()), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            new CheckpointWriter(out).doWrite(
+                    csManager, callGraph, pointerFlowGraph, workList);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // e.g., on file systems without atomic rename, the previous
+            // checkpoint is lost if the move is interrupted
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void doWrite(CSManager csManager, CSCallGraph callGraph,
+                         PointerFlowGraph pointerFlowGraph, WorkList workList)
+            throws IOException {
+        for (CSMethod csMethod : callGraph.entryMethods().toList()) {
+            writeData(DATA_ENTRY, getCSMethodId(csMethod));
+        }
+        for (CSMethod csMethod : callGraph.reachableMethods().toList()) {
+            writeData(DATA_REACHABLE, getCSMethodId(csMethod));
+        }
+        for (Edge<CSCallSite, CSMethod> edge : callGraph.edges().toList()) {
+            int kind = edge.getKind().ordinal();
+            int csCallSite = getCSCallSiteId(edge.getCallSite());
+            int csCallee = getCSMethodId(edge.getCallee());
+            writeData(DATA_CALL_EDGE, kind, csCallSite, csCallee);
+        }
+        writePointsToSets(csManager.getCSVars());
+        writePointsToSets(csManager.getStaticFields());
+        writePointsToSets(csManager.getInstanceFields());
+        writePointsToSets(csManager.getArrayIndexes());
+        for (Map.Entry<Pointer, Pointer> edge : pointerFlowGraph.getEdges()) {
+            int source = getPointerId(edge.getKey());
+            int target = getPointerId(edge.getValue());
+            writeData(DATA_PFG_EDGE, source, target);
+        }
+        for (WorkList.Entry entry : workList.getEntries()) {
+            writePointsToSet(DATA_WORK_ENTRY, entry.pointer(), entry.pointsToSet());
+        }
+        writeDeclaredMethods();
+        out.writeByte(END);
+    }
+
+    /**
+     * Writes the subsignatures of the methods declared in the classes of
+     * the objects and in their supertypes, which the virtual calls on the
+     * objects are dispatched to.
+     */
+    private void writeDeclaredMethods() throws IOException {
+        Set<JClass> visited = Sets.newSet();
+        Deque<JClass> queue = new ArrayDeque<>(classes);
+        while (!queue.isEmpty()) {
+            JClass jclass = queue.poll();
+            if (!visited.add(jclass)) {
+                continue;
+            }
+            Collection<JMethod> methods = jclass.getDeclaredMethods();
+            out.writeByte(DATA_METHODS);
+            out.writeUTF(jclass.getName());
+            writeVarInt(methods.size());
+            for (JMethod method : methods) {
+                out.writeUTF(method.getSubsignature().toString());
+            }
+            if (jclass.getSuperClass() != null) {
+                queue.add(jclass.getSuperClass());
+            }
+            queue.addAll(jclass.getInterfaces());
+        }
+    }
+
+    private void writePointsToSets(Collection<? extends Pointer> pointers)
+            throws IOException {
+        for (Pointer pointer : pointers) {
+            PointsToSet pts = pointer.getPointsToSet();
+            if (pts != null && !pts.isEmpty()) {
+                writePointsToSet(DATA_POINTS_TO, pointer, pts);
+            }
+        }
+    }
+
+    /**
+     * Writes a points-to set as the number of objects and the deltas
+     * of sorted ids.
+     */
+    private void writePointsToSet(int tag, Pointer pointer, PointsToSet pts)
+            throws IOException {
+        int pointerId = getPointerId(pointer);
+        int[] ids = new int[pts.size()];
+        int i = 0;
+        for (CSObj csObj : pts.getObjects()) {
+            ids[i++] = getCSObjId(csObj);
+        }
+        Arrays.sort(ids);
+        out.writeByte(tag);
+        writeVarInt(pointerId);
+        writeVarInt(ids.length);
+        int prev = 0;
+        for (int id : ids) {
+            writeVarInt(id - prev);
+            prev = id;
+        }
+    }
+
+    private void writeData(int tag, int... values) throws IOException {
+        out.writeByte(tag);
+        for (int value : values) {
+            writeVarInt(value);
+        }
+    }
+
+    private int getMethodId(JMethod method) throws IOException {
+        Integer id = methodIds.get(method);
+        if (id == null) {
+            out.writeByte(DEF_METHOD);
+            out.writeUTF(method.getSignature());
+            out.writeLong(fingerprint(method));
+            id = methodIds.size();
+            methodIds.put(method, id);
+        }
+        return id;
+    }
+
+    private int getFieldId(JField field) throws IOException {
+        Integer id = fieldIds.get(field);
+        if (id == null) {
+            out.writeByte(DEF_FIELD);
+            out.writeUTF(field.getSignature());
+            id = fieldIds.size();
+            fieldIds.put(field, id);
+        }
+        return id;
+    }
+
+    private int getTypeId(Type type) throws IOException {
+        Integer id = typeIds.get(type);
+        if (id == null) {
+            out.writeByte(DEF_TYPE);
+            out.writeUTF(type.getName());
+            id = typeIds.size();
+            typeIds.put(type, id);
+        }
+        return id;
+    }
+
+    private int getStmtId(Stmt stmt) throws IOException {
+        Integer id = stmtIds.get(stmt);
+        if (id == null) {
+            JMethod container;
+            if (stmt instanceof Invoke invoke) {
+                container = invoke.getContainer();
+            } else if (stmt instanceof New newStmt) {
+                container = newStmt.getContainer();
+            } else {
+                throw new AnalysisException("Unsupported statement in checkpoint: " + stmt);
+            }
+            writeData(DEF_STMT, getMethodId(container), stmt.getIndex());
+            id = stmtIds.size();
+            stmtIds.put(stmt, id);
+        }
+        return id;
+    }
+
+    private int getVarId(Var var) throws IOException {
+        Integer id = varIds.get(var);
+        if (id == null) {
+            writeData(DEF_VAR, getMethodId(var.getMethod()), var.getIndex());
+            id = varIds.size();
+            varIds.put(var, id);
+        }
+        return id;
+    }
+
+    private int getObjId(Obj obj) throws IOException {
+        Integer id = objIds.get(obj);
+        if (id == null) {
+            if (obj instanceof MockObj mockObj &&
+                    mockObj.getAllocation() instanceof Stmt alloc) {
+                int allocId = getStmtId(alloc);
+                int typeId = getTypeId(mockObj.getType());
+                out.writeByte(DEF_OBJ);
+                out.writeByte(OBJ_MOCK);
+                out.writeUTF(mockObj.getDescription());
+                writeVarInt(allocId);
+                writeVarInt(typeId);
+            } else {
+                // the objects of the heap model are restored from
+                // their allocation sites, and a merged object from
+                // any of its merged allocation sites
+                Obj newObj = obj instanceof MergedObj mergedObj ?
+                        mergedObj.getAllocation().iterator().next() : obj;
+                if (!(newObj.getAllocation() instanceof New alloc)) {
+                    throw new AnalysisException("Unsupported object in checkpoint: " + obj);
+                }
+                int allocId = getStmtId(alloc);
+                out.writeByte(DEF_OBJ);
+                out.writeByte(OBJ_NEW);
+                writeVarInt(allocId);
+            }
+            if (obj.getType() instanceof ClassType classType) {
+                classes.add(classType.getJClass());
+            }
+            id = objIds.size();
+            objIds.put(obj, id);
+        }
+        return id;
+    }
+
+    private int getContextId(Context context) throws IOException {
+        Integer id = contextIds.get(context);
+        if (id == null) {
+            int length = context.getLength();
+            int[] kinds = new int[length];
+            int[] ids = new int[length];
+            for (int i = 0; i < length; ++i) {
+                Object elem = context.getElementAt(i);
+                if (elem instanceof Stmt stmt) {
+                    kinds[i] = ELEM_STMT;
+                    ids[i] = getStmtId(stmt);
+                } else if (elem instanceof Obj obj) {
+                    kinds[i] = ELEM_OBJ;
+                    ids[i] = getObjId(obj);
+                } else if (elem instanceof Type type) {
+                    kinds[i] = ELEM_TYPE;
+                    ids[i] = getTypeId(type);
+                } else {
+                    throw new AnalysisException("Unsupported context element in checkpoint: " + elem);
+                }
+            }
+            out.writeByte(DEF_CONTEXT);
+            writeVarInt(length);
+            for (int i = 0; i < length; ++i) {
+                out.writeByte(kinds[i]);
+                writeVarInt(ids[i]);
+            }
+            id = contextIds.size();
+            contextIds.put(context, id);
+        }
+        return id;
+    }
+
+    private int getCSObjId(CSObj csObj) throws IOException {
+        Integer id = csObjIds.get(csObj);
+        if (id == null) {
+            writeData(DEF_CS_OBJ, getContextId(csObj.getContext()),
+                    getObjId(csObj.getObject()));
+            id = csObjIds.size();
+            csObjIds.put(csObj, id);
+        }
+        return id;
+    }
+
+    private int getCSMethodId(CSMethod csMethod) throws IOException {
+        Integer id = csMethodIds.get(csMethod);
+        if (id == null) {
+            writeData(DEF_CS_METHOD, getContextId(csMethod.getContext()),
+                    getMethodId(csMethod.getMethod()));
+            id = csMethodIds.size();
+            csMethodIds.put(csMethod, id);
+        }
+        return id;
+    }
+
+    private int getCSCallSiteId(CSCallSite csCallSite) throws IOException {
+        Integer id = csCallSiteIds.get(csCallSite);
+        if (id == null) {
+            writeData(DEF_CS_CALL_SITE, getContextId(csCallSite.getContext()),
+                    getStmtId(csCallSite.getCallSite()));
+            id = csCallSiteIds.size();
+            csCallSiteIds.put(csCallSite, id);
+        }
+        return id;
+    }
+
+    private int getPointerId(Pointer pointer) throws IOException {
+        Integer id = pointerIds.get(pointer);
+        if (id == null) {
+            if (pointer instanceof CSVar csVar) {
+                int contextId = getContextId(csVar.getContext());
+                int varId = getVarId(csVar.getVar());
+                writePointer(PTR_VAR, contextId, varId);
+            } else if (pointer instanceof StaticField staticField) {
+                writePointer(PTR_STATIC_FIELD, getFieldId(staticField.getField()));
+            } else if (pointer instanceof InstanceField instanceField) {
+                int baseId = getCSObjId(instanceField.getBase());
+                int fieldId = getFieldId(instanceField.getField());
+                writePointer(PTR_INSTANCE_FIELD, baseId, fieldId);
+            } else if (pointer instanceof ArrayIndex arrayIndex) {
+                writePointer(PTR_ARRAY_INDEX, getCSObjId(arrayIndex.getArray()));
+            } else {
+                throw new AnalysisException("Unsupported pointer in checkpoint: " + pointer);
+            }
+            id = pointerIds.size();
+            pointerIds.put(pointer, id);
+        }
+        return id;
+    }
+
+    private void writePointer(int kind, int... values) throws IOException {
+        out.writeByte(DEF_POINTER);
+        out.writeByte(kind);
+        for (int value : values) {
+            writeVarInt(value);
+        }
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
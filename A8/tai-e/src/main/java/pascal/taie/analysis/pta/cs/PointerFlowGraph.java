@@ -25,7 +25,11 @@ package pascal.taie.analysis.pta.cs;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -48,6 +52,35 @@ class PointerFlowGraph {
         return successors.put(source, target);
     }
 
+    /**
+     * Removes the edges from and to given pointers in this PFG.
+     *
+     * @return the sources of the removed edges which are not in
+     * the given pointers.
+     */
+    Set<Pointer> removeEdges(Set<Pointer> pointers) {
+        pointers.forEach(successors::removeAll);
+        List<Map.Entry<Pointer, Pointer>> edges = new ArrayList<>();
+        for (Map.Entry<Pointer, Pointer> edge : successors.entrySet()) {
+            if (pointers.contains(edge.getValue())) {
+                edges.add(Map.entry(edge.getKey(), edge.getValue()));
+            }
+        }
+        Set<Pointer> sources = Sets.newSet();
+        edges.forEach(edge -> {
+            successors.remove(edge.getKey(), edge.getValue());
+            sources.add(edge.getKey());
+        });
+        return sources;
+    }
+
+    /**
+     * @return all edges (source -> target) of this PFG.
+     */
+    Set<Map.Entry<Pointer, Pointer>> getEdges() {
+        return successors.entrySet();
+    }
+
     /**
      * @return successors of given pointer in the PFG.
      */
@@ -0,0 +1,259 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Profiles the propagation work of the solver, and attributes it to
+ * methods, variables and allocation sites (objects without contexts).
+ * <p>
+ * The profiler counts, for each method/variable/object, the objects
+ * propagated to its pointers (for objects, the times the object itself is
+ * propagated), the PFG edges to its pointers, the call edges from it, and
+ * the contexts created for it. It emits a report of the top entities of
+ * each kind, and a collapsed-stack file of the objects propagated,
+ * whose frames are the context elements, the method and the variable
+ * of each pointer, which is readable by flame graph tools.
+ */
+class PropagationProfiler {
+
+    private static final int PROPAGATED = 0;
+
+    private static final int PFG_EDGES = 1;
+
+    private static final int CALL_EDGES = 2;
+
+    private static final int CONTEXTS = 3;
+
+    private static final String[] COUNTER_NAMES = {
+            "propagated", "pfg-edges", "call-edges", "contexts"
+    };
+
+    private final Map<JMethod, long[]> methodCounters = Maps.newMap();
+
+    private final Map<Var, long[]> varCounters = Maps.newMap();
+
+    private final Map<Obj, long[]> objCounters = Maps.newMap();
+
+    /**
+     * Objects propagated to the pointers, which are grouped by stacks.
+     */
+    private final Map<Pointer, long[]> pointerPropagated = Maps.newMap();
+
+    private final Set<CSObj> csObjs = Sets.newSet();
+
+    /**
+     * Records that objects in delta are propagated to pointer.
+     */
+    void onPropagate(Pointer pointer, PointsToSet delta) {
+        int size = delta.size();
+        pointerPropagated.computeIfAbsent(pointer, p -> new long[1])[0] += size;
+        if (pointer instanceof CSVar csVar) {
+            count(varCounters, csVar.getVar(), PROPAGATED, size);
+            count(methodCounters, csVar.getVar().getMethod(), PROPAGATED, size);
+        }
+        for (CSObj csObj : delta.getObjects()) {
+            count(objCounters, csObj.getObject(), PROPAGATED, 1);
+        }
+    }
+
+    /**
+     * Records a new PFG edge, which is attributed to its target.
+     */
+    void onPFGEdge(Pointer target) {
+        if (target instanceof CSVar csVar) {
+            count(varCounters, csVar.getVar(), PFG_EDGES, 1);
+            count(methodCounters, csVar.getVar().getMethod(), PFG_EDGES, 1);
+        } else if (target instanceof InstanceField field) {
+            count(objCounters, field.getBase().getObject(), PFG_EDGES, 1);
+        } else if (target instanceof ArrayIndex array) {
+            count(objCounters, array.getArray().getObject(), PFG_EDGES, 1);
+        }
+    }
+
+    /**
+     * Records a new call edge, which is attributed to the caller method
+     * and the receiver variable (for instance calls).
+     */
+    void onCallEdge(CSCallSite csCallSite) {
+        count(methodCounters, csCallSite.getCallSite().getContainer(), CALL_EDGES, 1);
+        if (csCallSite.getCallSite().getInvokeExp() instanceof InvokeInstanceExp exp) {
+            count(varCounters, exp.getBase(), CALL_EDGES, 1);
+        }
+    }
+
+    /**
+     * Records a new reachable context-sensitive method.
+     */
+    void onNewCSMethod(CSMethod csMethod) {
+        count(methodCounters, csMethod.getMethod(), CONTEXTS, 1);
+    }
+
+    /**
+     * Records a context-sensitive object allocated by the solver,
+     * which is counted once.
+     */
+    void onCSObj(CSObj csObj) {
+        if (csObjs.add(csObj)) {
+            count(objCounters, csObj.getObject(), CONTEXTS, 1);
+        }
+    }
+
+    private static <K> void count(Map<K, long[]> counters, K key,
+                                  int counter, long n) {
+        counters.computeIfAbsent(key, k -> new long[COUNTER_NAMES.length])[counter] += n;
+    }
+
+    /**
+     * Writes the report of top n entities of each kind to given file.
+     */
+    void writeReport(String file, int n) throws IOException {
+        try (PrintWriter out = new PrintWriter(
+                new BufferedWriter(new FileWriter(file)))) {
+            writeTop(out, "methods", methodCounters, JMethod::toString, n);
+            writeTop(out, "variables", varCounters,
+                    v -> v.getMethod() + "/" + v.getName(), n);
+            writeTop(out, "objects", objCounters, Obj::toString, n);
+        }
+    }
+
+    private static <K> void writeTop(PrintWriter out, String kind,
+                                     Map<K, long[]> counters,
+                                     Function<K, String> toString, int n) {
+        out.printf("Top %d %s by propagated objects (of %d)%n",
+                Math.min(n, counters.size()), kind, counters.size());
+        StringJoiner header = new StringJoiner(" ");
+        for (String name : COUNTER_NAMES) {
+            header.add(String.format("%12s", name));
+        }
+        out.println(header + "  " + kind);
+        counters.entrySet()
+                .stream()
+                .sorted(Comparator.comparing((Map.Entry<K, long[]> e) -> e.getValue(),
+                                PropagationProfiler::compareCounters)
+                        .reversed())
+                .limit(n)
+                .forEach(e -> {
+                    StringJoiner line = new StringJoiner(" ");
+                    for (long value : e.getValue()) {
+                        line.add(String.format("%12d", value));
+                    }
+                    out.println(line + "  " + toString.apply(e.getKey()));
+                });
+        out.println();
+    }
+
+    /**
+     * Compares counters by the propagated objects, then the other counters.
+     */
+    private static int compareCounters(long[] c1, long[] c2) {
+        for (int i = 0; i < c1.length; ++i) {
+            int cmp = Long.compare(c1[i], c2[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the objects propagated to given file in collapsed-stack format,
+     * i.e., each line consists of the frames separated by ';' and a count.
+     */
+    void writeCollapsedStacks(String file) throws IOException {
+        Map<String, long[]> stacks = Maps.newMap();
+        pointerPropagated.forEach((pointer, propagated) ->
+                stacks.computeIfAbsent(toStack(pointer), s -> new long[1])[0]
+                        += propagated[0]);
+        try (PrintWriter out = new PrintWriter(
+                new BufferedWriter(new FileWriter(file)))) {
+            stacks.entrySet()
+                    .stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> out.println(e.getKey() + " " + e.getValue()[0]));
+        }
+    }
+
+    private static String toStack(Pointer pointer) {
+        StringJoiner stack = new StringJoiner(";");
+        if (pointer instanceof CSVar csVar) {
+            addFrames(stack, csVar.getContext());
+            stack.add(frame(csVar.getVar().getMethod()));
+            stack.add(frame(csVar.getVar().getName()));
+        } else if (pointer instanceof InstanceField field) {
+            stack.add("[heap]");
+            stack.add(frame(field.getBase().getObject()));
+            stack.add(frame(field.getField().getName()));
+        } else if (pointer instanceof ArrayIndex array) {
+            stack.add("[heap]");
+            stack.add(frame(array.getArray().getObject()));
+            stack.add("[*]");
+        } else if (pointer instanceof StaticField field) {
+            stack.add("[static]");
+            stack.add(frame(field.getField()));
+        } else {
+            stack.add(frame(pointer));
+        }
+        return stack.toString();
+    }
+
+    private static void addFrames(StringJoiner stack, Context context) {
+        for (int i = 0; i < context.getLength(); ++i) {
+            stack.add(frame(context.getElementAt(i)));
+        }
+    }
+
+    /**
+     * @return the frame of given element, where the separators of
+     * collapsed-stack format are replaced.
+     */
+    private static String frame(Object elem) {
+        return elem.toString().replace(';', ',').replace('\n', ' ');
+    }
+}
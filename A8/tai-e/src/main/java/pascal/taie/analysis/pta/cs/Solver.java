@@ -49,16 +49,48 @@ import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeInstanceExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Sets;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Default interval (in seconds) of periodic checkpoints.
+     */
+    private static final long DEFAULT_CHECKPOINT_INTERVAL = 600;
+
+    /**
+     * Maximum time (in seconds) the shutdown hook waits for the solver
+     * to write a checkpoint on termination.
+     */
+    private static final long SHUTDOWN_CHECKPOINT_TIMEOUT = 60;
+
+    /**
+     * Default number of the top entities in the profile report.
+     */
+    private static final int DEFAULT_PROFILE_TOP = 20;
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
@@ -77,11 +109,62 @@ public class Solver {
 
     private PointerAnalysisResult result;
 
+    /**
+     * File to which the solver state is checkpointed, or null if
+     * checkpointing is disabled.
+     */
+    private final File checkpointFile;
+
+    /**
+     * Interval (in nanoseconds) of periodic checkpoints.
+     */
+    private final long checkpointInterval;
+
+    private long lastCheckpoint;
+
+    /**
+     * Set by the shutdown hook, e.g., on SIGTERM, to request a checkpoint
+     * at the next consistent point of the solving.
+     */
+    private volatile boolean checkpointRequested;
+
+    /**
+     * Released when the requested checkpoint is written, or when
+     * the solving finishes.
+     */
+    private CountDownLatch checkpointDone;
+
+    /**
+     * Prefix of the profile files, or null if profiling is disabled.
+     */
+    private final String profilePrefix;
+
+    private final PropagationProfiler profiler;
+
+    /**
+     * Hook called before each work-list entry is processed, where the
+     * solver state is consistent, or null if not set. For testing only.
+     */
+    static Consumer<Solver> entryHook;
+
+    /**
+     * Hook called after the solving finishes, or null if not set.
+     * For testing only.
+     */
+    static Consumer<Solver> finishHook;
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        String checkpoint = options.getString("checkpoint");
+        this.checkpointFile = checkpoint != null ? new File(checkpoint) : null;
+        Object interval = options.get("checkpoint-interval");
+        this.checkpointInterval = TimeUnit.SECONDS.toNanos(interval == null ?
+                DEFAULT_CHECKPOINT_INTERVAL : Long.parseLong(interval.toString()));
+        this.profilePrefix = options.getString("profile");
+        this.profiler = profilePrefix != null ? new PropagationProfiler() : null;
     }
 
     public AnalysisOptions getOptions() {
@@ -102,23 +185,55 @@ public class Solver {
     }
 
     void solve() {
-        initialize();
-        analyze();
+        CheckpointReader.Changes changes = initialize();
+        Thread shutdownHook = checkpointFile != null ? addShutdownHook() : null;
+        try {
+            if (changes == null || changes.isEmpty()) {
+                analyze();
+            } else {
+                resolve(changes);
+            }
+            if (checkpointFile != null) {
+                // the final state is the base of later incremental runs
+                writeCheckpoint();
+            }
+        } finally {
+            if (shutdownHook != null) {
+                removeShutdownHook(shutdownHook);
+            }
+        }
+        if (finishHook != null) {
+            finishHook.accept(this);
+        }
         taintAnalysis.onFinish();
+        writeProfile();
     }
 
-    private void initialize() {
+    /**
+     * Initializes the solver state, from the checkpoint given by option
+     * restore if it is specified, otherwise from the program entry.
+     *
+     * @return the changes of the program since the restored checkpoint,
+     * or null if the solver does not restore a checkpoint.
+     */
+    private CheckpointReader.Changes initialize() {
         csManager = new MapBasedCSManager();
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
         taintAnalysis = new TaintAnalysiss(this);
+        String restore = options.getString("restore");
+        if (restore != null) {
+            // resume from the checkpoint instead of the program entry
+            return restore(new File(restore));
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
         CSMethod csMethod = csManager.getCSMethod(defContext, main);
         callGraph.addEntryMethod(csMethod);
         addReachable(csMethod);
+        return null;
     }
 
     /**
@@ -128,6 +243,9 @@ public class Solver {
         // TODO - finish me
         StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
         if(callGraph.addReachableMethod(csMethod)){
+            if (profiler != null) {
+                profiler.onNewCSMethod(csMethod);
+            }
             for(Stmt stmt : csMethod.getMethod().getIR().getStmts()){
                 stmt.accept(stmtProcessor);
             }
@@ -157,6 +275,9 @@ public class Solver {
             Obj obj = heapModel.getObj(stmt);
             Context objContext = contextSelector.selectHeapContext(csMethod, obj);
             CSObj csObj = csManager.getCSObj(objContext, obj);
+            if (profiler != null) {
+                profiler.onCSObj(csObj);
+            }
             workList.addEntry(varPtr, PointsToSetFactory.make(csObj));
             return null;
         }
@@ -201,20 +322,11 @@ public class Solver {
 
                 taintAnalysis.taintTransferFlow(stmt, ctContext, context);
                 if (callGraph.addEdge(new Edge<>(CallKind.STATIC, csInvoke, csCallee))) {
-                    addReachable(csCallee);
-                    for (int i = 0; i < callee.getParamCount(); i++) {
-                        CSVar argPtr = csManager.getCSVar(context, stmt.getInvokeExp().getArg(i));
-                        CSVar paramPtr = csManager.getCSVar(ctContext, callee.getIR().getParam(i));
-                        addPFGEdge(argPtr, paramPtr);
-                    }
-                    if (stmt.getResult() != null) {
-                        CSVar resultPtr = csManager.getCSVar(context, stmt.getResult());
-                        taintAnalysis.taintSourceFlow(stmt, ctContext, resultPtr);
-                        for (Var returnVar : callee.getIR().getReturnVars()) {
-                            CSVar returnPtr = csManager.getCSVar(ctContext, returnVar);
-                            addPFGEdge(returnPtr, resultPtr);
-                        }
+                    if (profiler != null) {
+                        profiler.onCallEdge(csInvoke);
                     }
+                    addReachable(csCallee);
+                    processCallEdge(stmt, context, csCallee);
                 }
             }
             return null;
@@ -227,6 +339,9 @@ public class Solver {
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
         if (pointerFlowGraph.addEdge(source, target)){
+            if (profiler != null) {
+                profiler.onPFGEdge(target);
+            }
             PointsToSet sourcePts = source.getPointsToSet();
             if(!sourcePts.isEmpty()){
                 workList.addEntry(target, sourcePts);
@@ -240,51 +355,65 @@ public class Solver {
     private void analyze() {
         // TODO - finish me
         while(!workList.isEmpty()){
+            if (checkpointFile != null) {
+                checkpointIfDue();
+            }
+            if (entryHook != null) {
+                entryHook.accept(this);
+            }
             WorkList.Entry entry = workList.pollEntry();
             Pointer pointer = entry.pointer();
             PointsToSet pointsToSet = entry.pointsToSet();
 
             PointsToSet delta = propagate(pointer, pointsToSet);
             if (pointer instanceof CSVar csVar){
-                Var var = csVar.getVar();
-                Context context = csVar.getContext();
                 for(CSObj csObj : delta.getObjects()){
-                    for(StoreField storeField : var.getStoreFields()){
-                        // x.f = y
-                        if(!storeField.isStatic()){
-                            InstanceField fieldPtr = csManager.getInstanceField(csObj, storeField.getFieldRef().resolve());
-                            CSVar varPtr = csManager.getCSVar(context, storeField.getRValue());
-                            addPFGEdge(varPtr, fieldPtr);
-                        }
-                    }
-                    for(LoadField loadField : var.getLoadFields()){
-                        // y = x.f
-                        if(!loadField.isStatic()){
-                            CSVar varPtr = csManager.getCSVar(context, loadField.getLValue());
-                            InstanceField fieldPtr = csManager.getInstanceField(csObj, loadField.getFieldRef().resolve());
-                            addPFGEdge(fieldPtr, varPtr);
-                        }
-                    }
-                    for(StoreArray storeArray : var.getStoreArrays()){
-                        // x[i] = y
-                        ArrayIndex arrayPtr = csManager.getArrayIndex(csObj);
-                        CSVar varPtr = csManager.getCSVar(context, storeArray.getRValue());
-                        addPFGEdge(varPtr, arrayPtr);
-                    }
-                    for(LoadArray loadArray : var.getLoadArrays()){
-                        // y = x[i]
-                        ArrayIndex arrayPtr = csManager.getArrayIndex(csObj);
-                        CSVar varPtr = csManager.getCSVar(context, loadArray.getLValue());
-                        addPFGEdge(arrayPtr, varPtr);
-                    }
-
-                    taintAnalysis.taintBroadcast(callGraph, csObj.getObject(), var);
-                    processCall(csVar, csObj);
+                    processObject(csVar, csObj);
                 }
             }
         }
     }
 
+    /**
+     * Processes the statements on variable csVar for a new object pointed
+     * by the variable.
+     */
+    private void processObject(CSVar csVar, CSObj csObj) {
+        Var var = csVar.getVar();
+        Context context = csVar.getContext();
+        for(StoreField storeField : var.getStoreFields()){
+            // x.f = y
+            if(!storeField.isStatic()){
+                InstanceField fieldPtr = csManager.getInstanceField(csObj, storeField.getFieldRef().resolve());
+                CSVar varPtr = csManager.getCSVar(context, storeField.getRValue());
+                addPFGEdge(varPtr, fieldPtr);
+            }
+        }
+        for(LoadField loadField : var.getLoadFields()){
+            // y = x.f
+            if(!loadField.isStatic()){
+                CSVar varPtr = csManager.getCSVar(context, loadField.getLValue());
+                InstanceField fieldPtr = csManager.getInstanceField(csObj, loadField.getFieldRef().resolve());
+                addPFGEdge(fieldPtr, varPtr);
+            }
+        }
+        for(StoreArray storeArray : var.getStoreArrays()){
+            // x[i] = y
+            ArrayIndex arrayPtr = csManager.getArrayIndex(csObj);
+            CSVar varPtr = csManager.getCSVar(context, storeArray.getRValue());
+            addPFGEdge(varPtr, arrayPtr);
+        }
+        for(LoadArray loadArray : var.getLoadArrays()){
+            // y = x[i]
+            ArrayIndex arrayPtr = csManager.getArrayIndex(csObj);
+            CSVar varPtr = csManager.getCSVar(context, loadArray.getLValue());
+            addPFGEdge(arrayPtr, varPtr);
+        }
+
+        taintAnalysis.taintBroadcast(callGraph, csObj.getObject(), var);
+        processCall(csVar, csObj);
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
@@ -300,6 +429,9 @@ public class Solver {
         }
 
         if(!delta.isEmpty()){
+            if (profiler != null) {
+                profiler.onPropagate(pointer, delta);
+            }
             pointerPts.addAll(delta);
             for(Pointer succ : pointerFlowGraph.getSuccsOf(pointer)) {
                 workList.addEntry(succ, delta);
@@ -330,30 +462,38 @@ public class Solver {
 
                 taintAnalysis.taintTransferFlow(invoke, context, recv.getContext());
                 if (callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke), csInvoke, csCallee))){
-                    addReachable(csCallee);
-
-                    for(int i = 0; i < callee.getParamCount(); i++){
-                        CSVar argPtr = csManager.getCSVar(recv.getContext(), invoke.getInvokeExp().getArg(i));
-                        CSVar paramPtr = csManager.getCSVar(context, callee.getIR().getParam(i));
-                        addPFGEdge(argPtr, paramPtr);
-                    }
-
-                    if(invoke.getResult() != null){
-                        Var resultVar = invoke.getResult();
-                        CSVar resultPtr = csManager.getCSVar(recv.getContext(), resultVar);
-                        taintAnalysis.taintSourceFlow(invoke, context, resultPtr);
-                        for(Var returnVar : callee.getIR().getReturnVars()){
-                            CSVar returnPtr = csManager.getCSVar(context, returnVar);
-                            // Why remove it form loop may cause failure?
-                            //CSVar resultPtr = csManager.getCSVar(recv.getContext(), resultVar);
-                            addPFGEdge(returnPtr, resultPtr);
-                        }
+                    if (profiler != null) {
+                        profiler.onCallEdge(csInvoke);
                     }
+                    addReachable(csCallee);
+                    processCallEdge(invoke, recv.getContext(), csCallee);
                 }
             }
         }
     }
 
+    /**
+     * Adds the PFG edges of parameter passing and return values,
+     * and the taint sources, for a call edge.
+     */
+    private void processCallEdge(Invoke callSite, Context context, CSMethod csCallee) {
+        JMethod callee = csCallee.getMethod();
+        Context ctContext = csCallee.getContext();
+        for (int i = 0; i < callee.getParamCount(); i++) {
+            CSVar argPtr = csManager.getCSVar(context, callSite.getInvokeExp().getArg(i));
+            CSVar paramPtr = csManager.getCSVar(ctContext, callee.getIR().getParam(i));
+            addPFGEdge(argPtr, paramPtr);
+        }
+        if (callSite.getResult() != null) {
+            CSVar resultPtr = csManager.getCSVar(context, callSite.getResult());
+            taintAnalysis.taintSourceFlow(callSite, ctContext, resultPtr);
+            for (Var returnVar : callee.getIR().getReturnVars()) {
+                CSVar returnPtr = csManager.getCSVar(ctContext, returnVar);
+                addPFGEdge(returnPtr, resultPtr);
+            }
+        }
+    }
+
     /**
      * Resolves the callee of a call site with the receiver object.
      *
@@ -367,6 +507,285 @@ public class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    /**
+     * Incrementally re-solves the analysis after given methods are changed.
+     */
+    void resolve(Set<JMethod> changedMethods) {
+        resolve(new CheckpointReader.Changes(changedMethods, Set.of(), Set.of()));
+    }
+
+    /**
+     * Incrementally re-solves the analysis after given changes, i.e., the
+     * changed methods, and the CS methods and pointers whose facts may be
+     * derived from the stale records dropped from a checkpoint.
+     * The facts that may depend on the changes, i.e., the affected
+     * methods and pointers, are retracted, then the facts flowing into them
+     * from the unaffected part are re-derived, and the work-list is solved
+     * again. The unaffected points-to sets only grow, so the result is the
+     * same as solving from scratch.
+     */
+    private void resolve(CheckpointReader.Changes changes) {
+        result = null;
+        Set<CSMethod> changed = callGraph.reachableMethods()
+                .filter(m -> changes.methods().contains(m.getMethod()))
+                .collect(Collectors.toCollection(Sets::newSet));
+        changed.addAll(changes.csMethods());
+        Set<CSMethod> methods = Sets.newSet();
+        Set<Pointer> pointers = Sets.newSet();
+        collectAffected(changed, changes.pointers(), methods, pointers);
+        logger.info("Incremental re-analysis: {} affected methods, {} affected pointers",
+                methods.size(), pointers.size());
+        // retract the affected facts
+        List<Edge<CSCallSite, CSMethod>> removedEdges =
+                callGraph.removeReachableMethods(methods);
+        Set<Pointer> sources = pointerFlowGraph.removeEdges(pointers);
+        pointers.forEach(p -> p.setPointsToSet(PointsToSetFactory.make()));
+        // re-derive the facts from the methods which may flow to
+        // the retracted ones
+        Set<CSMethod> touched = Sets.newSet();
+        for (Pointer p : pointers) {
+            if (p instanceof CSVar csVar) {
+                touched.add(getCSMethodOf(csVar));
+            }
+        }
+        for (Pointer p : sources) {
+            if (p instanceof CSVar csVar) {
+                touched.add(getCSMethodOf(csVar));
+            }
+        }
+        removedEdges.forEach(edge -> touched.add(edge.getCallSite().getContainer()));
+        touched.removeAll(methods);
+        callGraph.entryMethods()
+                .filter(methods::contains)
+                .toList()
+                .forEach(this::addReachable);
+        touched.forEach(this::rederive);
+        analyze();
+    }
+
+    /**
+     * Collects the methods and pointers whose facts may depend on given
+     * changed methods and pointers: the callees of the affected methods (whose
+     * reachability may change), the variables of the affected methods,
+     * the PFG successors of affected pointers, and the facts derived
+     * from the points-to sets of affected variables, i.e., the instance
+     * fields and array indexes stored via them, the variables loaded
+     * via them, the callees dispatched on them, and the targets of
+     * the taint transfers from them.
+     */
+    private void collectAffected(Set<CSMethod> changed, Set<Pointer> changedPointers,
+                                 Set<CSMethod> methods, Set<Pointer> pointers) {
+        Deque<CSMethod> methodQueue = new ArrayDeque<>(changed);
+        Deque<Pointer> pointerQueue = new ArrayDeque<>(changedPointers);
+        while (!methodQueue.isEmpty() || !pointerQueue.isEmpty()) {
+            if (!methodQueue.isEmpty()) {
+                CSMethod csMethod = methodQueue.poll();
+                if (methods.add(csMethod)) {
+                    Context context = csMethod.getContext();
+                    for (Var var : csMethod.getMethod().getIR().getVars()) {
+                        CSVar csVar = findCSVar(context, var);
+                        if (csVar != null) {
+                            pointerQueue.add(csVar);
+                        }
+                    }
+                    callGraph.forEachCallee(csMethod,
+                            (csCallSite, callee) -> methodQueue.add(callee));
+                }
+                continue;
+            }
+            Pointer pointer = pointerQueue.poll();
+            if (!pointers.add(pointer)) {
+                continue;
+            }
+            pointerQueue.addAll(pointerFlowGraph.getSuccsOf(pointer));
+            if (pointer instanceof CSVar csVar) {
+                Var var = csVar.getVar();
+                Context context = csVar.getContext();
+                for (CSObj csObj : csVar.getPointsToSet().getObjects()) {
+                    for (StoreField storeField : var.getStoreFields()) {
+                        if (!storeField.isStatic()) {
+                            pointerQueue.add(csManager.getInstanceField(
+                                    csObj, storeField.getFieldRef().resolve()));
+                        }
+                    }
+                    if (!var.getStoreArrays().isEmpty()) {
+                        pointerQueue.add(csManager.getArrayIndex(csObj));
+                    }
+                }
+                for (LoadField loadField : var.getLoadFields()) {
+                    addIfPresent(pointerQueue, context, loadField.getLValue());
+                }
+                for (LoadArray loadArray : var.getLoadArrays()) {
+                    addIfPresent(pointerQueue, context, loadArray.getLValue());
+                }
+                for (Invoke invoke : var.getInvokes()) {
+                    csManager.getCSCallSite(context, invoke).getEdges()
+                            .forEach(edge -> methodQueue.add(edge.getCallee()));
+                }
+                // taint transfers read the points-to sets of bases and arguments
+                for (Stmt stmt : var.getMethod().getIR().getStmts()) {
+                    if (stmt instanceof Invoke invoke &&
+                            (invoke.getInvokeExp().getArgs().contains(var) ||
+                                    var.getInvokes().contains(invoke))) {
+                        if (invoke.getInvokeExp() instanceof InvokeInstanceExp exp) {
+                            addIfPresent(pointerQueue, context, exp.getBase());
+                        }
+                        if (invoke.getResult() != null) {
+                            addIfPresent(pointerQueue, context, invoke.getResult());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void addIfPresent(Collection<Pointer> pointers, Context context, Var var) {
+        CSVar csVar = findCSVar(context, var);
+        if (csVar != null) {
+            pointers.add(csVar);
+        }
+    }
+
+    /**
+     * Re-derives the facts of an unaffected method: replays its statements,
+     * the flows of its call edges, and the statements on the objects
+     * pointed by its variables. All of them are idempotent for the facts
+     * which are not retracted.
+     */
+    private void rederive(CSMethod csMethod) {
+        Context context = csMethod.getContext();
+        StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+        IR ir = csMethod.getMethod().getIR();
+        for (Stmt stmt : ir.getStmts()) {
+            stmt.accept(stmtProcessor);
+        }
+        for (CSCallSite csCallSite : callGraph.getCallSitesIn(csMethod)) {
+            Invoke callSite = csCallSite.getCallSite();
+            for (Edge<CSCallSite, CSMethod> edge : List.copyOf(csCallSite.getEdges())) {
+                processCallEdge(callSite, context, edge.getCallee());
+                taintAnalysis.taintTransferFlow(callSite,
+                        edge.getCallee().getContext(), context);
+            }
+        }
+        for (Var var : ir.getVars()) {
+            CSVar csVar = findCSVar(context, var);
+            if (csVar != null) {
+                for (CSObj csObj : List.copyOf(csVar.getPointsToSet().getObjects())) {
+                    processObject(csVar, csObj);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the existing CS variable of given variable and context,
+     * or null if the variable has not been analyzed in the context.
+     */
+    private CSVar findCSVar(Context context, Var var) {
+        for (CSVar csVar : csManager.getCSVarsOf(var)) {
+            if (csVar.getContext().equals(context)) {
+                return csVar;
+            }
+        }
+        return null;
+    }
+
+    private CSMethod getCSMethodOf(CSVar csVar) {
+        return csManager.getCSMethod(csVar.getContext(), csVar.getVar().getMethod());
+    }
+
+    /**
+     * Writes a checkpoint if it is requested by the shutdown hook, or if
+     * the checkpoint interval has passed since the last one. This is called
+     * between work-list entries, where the solver state is consistent.
+     */
+    private void checkpointIfDue() {
+        if (checkpointRequested) {
+            writeCheckpoint();
+            checkpointRequested = false;
+            checkpointDone.countDown();
+        } else if (System.nanoTime() - lastCheckpoint >= checkpointInterval) {
+            writeCheckpoint();
+        }
+    }
+
+    void writeCheckpoint() {
+        try {
+            CheckpointWriter.write(checkpointFile,
+                    csManager, callGraph, pointerFlowGraph, workList);
+            logger.info("Checkpointed solver state to {}", checkpointFile);
+        } catch (IOException e) {
+            // a failed checkpoint should not stop the analysis
+            logger.error("Failed to write checkpoint " + checkpointFile, e);
+        }
+        lastCheckpoint = System.nanoTime();
+    }
+
+    /**
+     * Adds a shutdown hook which makes the solver write a checkpoint
+     * when the JVM is terminated, e.g., by SIGTERM, during the solving.
+     */
+    private Thread addShutdownHook() {
+        lastCheckpoint = System.nanoTime();
+        checkpointDone = new CountDownLatch(1);
+        Thread hook = new Thread(() -> {
+            checkpointRequested = true;
+            try {
+                checkpointDone.await(SHUTDOWN_CHECKPOINT_TIMEOUT, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "solver-checkpoint");
+        Runtime.getRuntime().addShutdownHook(hook);
+        return hook;
+    }
+
+    private void removeShutdownHook(Thread hook) {
+        checkpointDone.countDown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(hook);
+        } catch (IllegalStateException e) {
+            // the JVM is shutting down, the hook is already running
+        }
+    }
+
+    /**
+     * Writes the profile report and collapsed stacks of the propagation
+     * work if profiling is enabled.
+     */
+    private void writeProfile() {
+        if (profiler == null) {
+            return;
+        }
+        Object top = options.get("profile-top");
+        int n = top == null ? DEFAULT_PROFILE_TOP : Integer.parseInt(top.toString());
+        try {
+            profiler.writeReport(profilePrefix + ".txt", n);
+            profiler.writeCollapsedStacks(profilePrefix + ".collapsed");
+            logger.info("Profile of propagation is written to {}.txt and {}.collapsed",
+                    profilePrefix, profilePrefix);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write profile", e);
+        }
+    }
+
+    /**
+     * Restores the solver state from given checkpoint.
+     *
+     * @return the changes of the program since the checkpoint was written.
+     */
+    private CheckpointReader.Changes restore(File checkpoint) {
+        try {
+            CheckpointReader.Changes changes = CheckpointReader.read(checkpoint,
+                    heapModel, csManager, callGraph, pointerFlowGraph, workList);
+            logger.info("Restored solver state from {}, {} changed methods",
+                    checkpoint, changes.methods().size());
+            return changes;
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read checkpoint " + checkpoint, e);
+        }
+    }
+
     public PointerAnalysisResult getResult() {
         if (result == null) {
             result = new PointerAnalysisResultImpl(csManager, callGraph);
@@ -26,6 +26,8 @@ import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 
 import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Queue;
 
 /**
@@ -50,6 +52,13 @@ class WorkList {
         return entries.poll();
     }
 
+    /**
+     * @return the entries in this work list, in the order they are polled.
+     */
+    Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries);
+    }
+
     /**
      * @return true if the work list is empty, otherwise false.
      */
@@ -0,0 +1,220 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Reader of the points-to sets in the binary format written by
+ * {@link BinaryResultWriter}. The file is memory-mapped, and the points-to
+ * sets are decoded lazily when they are queried, thus opening a result
+ * file is cheap regardless of its size.
+ * <p>
+ * The format consists of five parts, in order:
+ * <ol>
+ *     <li>header: magic number, version, number of strings, number of
+ *     pointers, and the lengths of the string data and points-to data;</li>
+ *     <li>string offsets: {@code nStrings + 1} ints, the string i is
+ *     in [offsets[i], offsets[i + 1]) of the string data;</li>
+ *     <li>string data: the strings of pointers and objects in UTF-8;</li>
+ *     <li>pointer table: for each pointer, its string id (int) and the
+ *     offset (long) of its points-to set in the points-to data.
+ *     The pointers are sorted by their strings, so that they can be
+ *     binary searched;</li>
+ *     <li>points-to data: for each points-to set, its size and the sorted
+ *     string ids of its objects, which are delta-encoded as varints.</li>
+ * </ol>
+ * The points-to data, which is the largest section, is mapped in segments,
+ * thus it is not limited in size. The string offsets are ints, so the
+ * string data is limited to 2GB.
+ */
+public class BinaryResultReader {
+
+    static final int MAGIC = 0x54414950; // "TAIP"
+
+    static final int VERSION = 2;
+
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * Size of each entry in the pointer table.
+     */
+    private static final int POINTER_ENTRY_SIZE = Integer.BYTES + Long.BYTES;
+
+    /**
+     * The points-to data is mapped in segments of 2^SEGMENT_BITS bytes,
+     * as a single mapped buffer cannot exceed 2GB.
+     */
+    private static final int SEGMENT_BITS = 30;
+
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private final int nPointers;
+
+    private final IntBuffer stringOffsets;
+
+    private final ByteBuffer stringData;
+
+    private final ByteBuffer pointerTable;
+
+    private final ByteBuffer[] ptsData;
+
+    private BinaryResultReader(int nPointers, IntBuffer stringOffsets,
+                               ByteBuffer stringData, ByteBuffer pointerTable,
+                               ByteBuffer[] ptsData) {
+        this.nPointers = nPointers;
+        this.stringOffsets = stringOffsets;
+        this.stringData = stringData;
+        this.pointerTable = pointerTable;
+        this.ptsData = ptsData;
+    }
+
+    /**
+     * Opens the result file by memory-mapping it.
+     */
+    public static BinaryResultReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a binary points-to result");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported version of binary points-to result: "
+                        + version);
+            }
+            int nStrings = header.getInt();
+            int nPointers = header.getInt();
+            long stringDataLength = header.getLong();
+            long ptsDataLength = header.getLong();
+            long pos = HEADER_SIZE;
+            long length = (nStrings + 1L) * Integer.BYTES;
+            IntBuffer stringOffsets = channel.map(
+                    FileChannel.MapMode.READ_ONLY, pos, length).asIntBuffer();
+            pos += length;
+            ByteBuffer stringData = channel.map(
+                    FileChannel.MapMode.READ_ONLY, pos, stringDataLength);
+            pos += stringDataLength;
+            length = (long) nPointers * POINTER_ENTRY_SIZE;
+            ByteBuffer pointerTable = channel.map(
+                    FileChannel.MapMode.READ_ONLY, pos, length);
+            pos += length;
+            ByteBuffer[] ptsData = new ByteBuffer[
+                    (int) ((ptsDataLength + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < ptsData.length; ++i) {
+                long start = (long) i << SEGMENT_BITS;
+                ptsData[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        pos + start, Math.min(SEGMENT_SIZE, ptsDataLength - start));
+            }
+            return new BinaryResultReader(nPointers, stringOffsets,
+                    stringData, pointerTable, ptsData);
+        }
+    }
+
+    /**
+     * @return the number of pointers in the result.
+     */
+    public int getNumberOfPointers() {
+        return nPointers;
+    }
+
+    /**
+     * @return the strings of all pointers in the result, in sorted order.
+     */
+    public Stream<String> pointers() {
+        return IntStream.range(0, nPointers)
+                .mapToObj(i -> getString(getPointerId(i)));
+    }
+
+    /**
+     * @return the strings of the objects pointed to by the given pointer,
+     * or null if the pointer is absent in the result.
+     */
+    public List<String> getPointsToSet(String pointer) {
+        int low = 0;
+        int high = nPointers - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getString(getPointerId(mid)).compareTo(pointer);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return decodePointsToSet(pointerTable.getLong(
+                        mid * POINTER_ENTRY_SIZE + Integer.BYTES));
+            }
+        }
+        return null;
+    }
+
+    private int getPointerId(int i) {
+        return pointerTable.getInt(i * POINTER_ENTRY_SIZE);
+    }
+
+    private List<String> decodePointsToSet(long offset) {
+        long[] pos = { offset };
+        int size = readVarInt(pos);
+        List<String> objects = new ArrayList<>(size);
+        int id = 0;
+        for (int i = 0; i < size; ++i) {
+            id += readVarInt(pos);
+            objects.add(getString(id));
+        }
+        return objects;
+    }
+
+    private String getString(int id) {
+        int start = stringOffsets.get(id);
+        byte[] bytes = new byte[stringOffsets.get(id + 1) - start];
+        stringData.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a varint from the points-to data at pos[0], and advances pos[0].
+     * A varint may span two segments.
+     */
+    private int readVarInt(long[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            long p = pos[0]++;
+            b = ptsData[(int) (p >>> SEGMENT_BITS)].get((int) (p & (SEGMENT_SIZE - 1)));
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
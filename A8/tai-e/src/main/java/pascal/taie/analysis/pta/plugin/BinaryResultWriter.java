@@ -0,0 +1,183 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static pascal.taie.analysis.pta.plugin.BinaryResultReader.HEADER_SIZE;
+import static pascal.taie.analysis.pta.plugin.BinaryResultReader.MAGIC;
+import static pascal.taie.analysis.pta.plugin.BinaryResultReader.VERSION;
+
+/**
+ * Writes the points-to sets of all pointers in a compact binary format,
+ * which is described in {@link BinaryResultReader}.
+ */
+final class BinaryResultWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final List<byte[]> strings = new ArrayList<>();
+
+    private final Map<String, Integer> stringIds = Maps.newMap();
+
+    private final Map<CSObj, Integer> objIds = Maps.newMap();
+
+    private BinaryResultWriter() {
+    }
+
+    static void write(PointerAnalysisResult result, File file) throws IOException {
+        new BinaryResultWriter().doWrite(result, file);
+    }
+
+    private void doWrite(PointerAnalysisResult result, File file) throws IOException {
+        List<Map.Entry<String, Pointer>> pointers = Stream.<Collection<? extends Pointer>>of(
+                        result.getCSVars(), result.getStaticFields(),
+                        result.getInstanceFields(), result.getArrayIndexes())
+                .flatMap(Collection::stream)
+                .map(p -> Map.entry(p.toString(), p))
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        int[] pointerIds = new int[pointers.size()];
+        long[] ptsOffsets = new long[pointers.size()];
+        // the points-to data may exceed the capacity of an in-memory array,
+        // thus it is streamed to a temporary file next to the output file,
+        // and then appended to the output file
+        File ptsFile = File.createTempFile(file.getName(), ".pts",
+                file.getAbsoluteFile().getParentFile());
+        try {
+            long ptsDataLength = 0;
+            try (OutputStream ptsData = new BufferedOutputStream(
+                    new FileOutputStream(ptsFile), BUFFER_SIZE)) {
+                for (int i = 0; i < pointers.size(); ++i) {
+                    Map.Entry<String, Pointer> entry = pointers.get(i);
+                    pointerIds[i] = getStringId(entry.getKey());
+                    ptsOffsets[i] = ptsDataLength;
+                    int[] ids = entry.getValue()
+                            .getPointsToSet()
+                            .objects()
+                            .mapToInt(this::getObjId)
+                            .sorted()
+                            .toArray();
+                    ptsDataLength += writeVarInt(ptsData, ids.length);
+                    int prev = 0;
+                    for (int id : ids) {
+                        ptsDataLength += writeVarInt(ptsData, id - prev);
+                        prev = id;
+                    }
+                }
+            }
+            writeFile(file, pointerIds, ptsOffsets, ptsFile, ptsDataLength);
+        } finally {
+            Files.deleteIfExists(ptsFile.toPath());
+        }
+    }
+
+    private void writeFile(File file, int[] pointerIds, long[] ptsOffsets,
+                           File ptsFile, long ptsDataLength) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file), BUFFER_SIZE))) {
+            long stringDataLength = strings.stream()
+                    .mapToLong(s -> s.length)
+                    .sum();
+            if (stringDataLength > Integer.MAX_VALUE) {
+                throw new IOException("String data exceeds 2GB: " + stringDataLength);
+            }
+            // header
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(strings.size());
+            out.writeInt(pointerIds.length);
+            out.writeLong(stringDataLength);
+            out.writeLong(ptsDataLength);
+            assert out.size() == HEADER_SIZE;
+            // string offsets
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] s : strings) {
+                offset += s.length;
+                out.writeInt(offset);
+            }
+            // string data
+            for (byte[] s : strings) {
+                out.write(s);
+            }
+            // pointer table
+            for (int i = 0; i < pointerIds.length; ++i) {
+                out.writeInt(pointerIds[i]);
+                out.writeLong(ptsOffsets[i]);
+            }
+            // points-to data
+            Files.copy(ptsFile.toPath(), out);
+        }
+    }
+
+    private int getStringId(String s) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(s, id);
+            strings.add(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    private int getObjId(CSObj obj) {
+        Integer id = objIds.get(obj);
+        if (id == null) {
+            id = getStringId(obj.toString());
+            objIds.put(obj, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return the number of bytes written.
+     */
+    private static int writeVarInt(OutputStream out, int value) throws IOException {
+        int n = 1;
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+            ++n;
+        }
+        out.write(value);
+        return n;
+    }
+}
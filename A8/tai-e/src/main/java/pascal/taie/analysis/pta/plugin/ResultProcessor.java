@@ -25,24 +25,35 @@ package pascal.taie.analysis.pta.plugin;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +61,8 @@ import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static pascal.taie.util.collection.CollectionUtils.sum;
 
@@ -72,6 +85,16 @@ public class ResultProcessor {
 
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
+    /**
+     * Size of the buffers for dumping results.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Suffix of the output files which are compressed by gzip.
+     */
+    private static final String GZIP_SUFFIX = ".gz";
+
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
@@ -85,11 +108,16 @@ public class ResultProcessor {
             case "dump":
                 dumpPointsToSet(result, file, taintEnabled);
                 break;
+            case "dump-binary":
+                dumpBinaryPointsToSet(result, file);
+                break;
             case "compare":
                 if (taintEnabled) {
                     // when taint analysis is enabled, we only compare
                     // detected taint flows
                     compareTaintFlows(result, file);
+                } else if (options.getBooleanOrDefault("fast-compare", false)) {
+                    fastComparePointsToSet(result, file);
                 } else {
                     comparePointsToSet(result, file);
                 }
@@ -108,8 +136,8 @@ public class ResultProcessor {
         int aptSizeSens = sum(result.getArrayIndexes(), getSize);
         int reachableInsens = result.getCallGraph().getNumberOfMethods();
         int reachableSens = result.getCSCallGraph().getNumberOfMethods();
-        int callEdgeInsens = (int) result.getCallGraph().edges().count();
-        int callEdgeSens = (int) result.getCSCallGraph().edges().count();
+        int callEdgeInsens = result.getCallGraph().getNumberOfEdges();
+        int callEdgeSens = result.getCSCallGraph().getNumberOfEdges();
         System.out.println("-------------- Pointer analysis statistics: --------------");
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
                 format(varInsens), format(varSens));
@@ -138,13 +166,14 @@ public class ResultProcessor {
         if (output != null) {  // if output file is given, then dump to the file
             File outFile = new File(output);
             try {
-                out = new PrintStream(new FileOutputStream(outFile));
+                out = new PrintStream(openOutput(outFile), false);
                 logger.info("Dumping points-to set to {} ...", outFile);
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 throw new RuntimeException("Failed to open output file", e);
             }
         } else {  // otherwise, dump to System.out
-            out = System.out;
+            out = new PrintStream(
+                    new BufferedOutputStream(System.out, BUFFER_SIZE), false);
         }
         dumpPointers(out, result.getCSVars(), "variables");
         dumpPointers(out, result.getStaticFields(), "static fields");
@@ -153,16 +182,54 @@ public class ResultProcessor {
         if (taintEnabled) {
             dumpTaintFlows(out, result);
         }
-        if (out != System.out) {
+        if (output != null) {
             out.close();
+        } else {
+            out.flush();
+        }
+    }
+
+    /**
+     * Dumps points-to sets in the binary format, which can be read by
+     * {@link BinaryResultReader}.
+     */
+    private static void dumpBinaryPointsToSet(PointerAnalysisResult result,
+                                              String output) {
+        if (output == null) {
+            throw new ConfigException("Option file is required by action dump-binary");
+        }
+        File outFile = new File(output);
+        logger.info("Dumping points-to set to {} ...", outFile);
+        try {
+            BinaryResultWriter.write(result, outFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write output file", e);
+        }
+    }
+
+    /**
+     * Opens a buffered output stream to given file. The output is
+     * compressed by gzip if the file name ends with {@link #GZIP_SUFFIX}.
+     */
+    private static OutputStream openOutput(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        if (file.getName().endsWith(GZIP_SUFFIX)) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
         }
+        return new BufferedOutputStream(out, BUFFER_SIZE);
     }
 
     private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
         out.println(HEADER + desc);
+        // compute the string of each pointer once, and sort by the strings
         pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
+                .map(p -> Map.entry(p.toString(), p))
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> {
+                    out.print(e.getKey());
+                    out.print(SEP);
+                    out.println(toString(e.getValue().getPointsToSet()));
+                });
         out.println();
     }
 
@@ -197,6 +264,174 @@ public class ResultProcessor {
         }
     }
 
+    /**
+     * Compares points-to sets with the ones in the input file, which is
+     * dumped by action dump (optionally compressed by gzip). Different from
+     * {@link #comparePointsToSet(PointerAnalysisResult, String)}, this method
+     * streams the input file, and merge-joins each section of it with the
+     * pointers sorted by their strings. The points-to sets are first compared
+     * by 64-bit hashes of their strings, which are combined from the cached
+     * hashes of the objects, and only the mismatched ones are converted
+     * to strings.
+     */
+    private static void fastComparePointsToSet(PointerAnalysisResult result, String input) {
+        logger.info("Comparing points-to set with {} (fast mode) ...", input);
+        Map<String, Collection<? extends Pointer>> sections = new LinkedHashMap<>();
+        sections.put(HEADER + "variables", result.getCSVars());
+        sections.put(HEADER + "static fields", result.getStaticFields());
+        sections.put(HEADER + "instance fields", result.getInstanceFields());
+        sections.put(HEADER + "array indexes", result.getArrayIndexes());
+        PointsToSetHasher hasher = new PointsToSetHasher();
+        List<String> mismatches = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                openInput(new File(input)), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            List<Map.Entry<String, Pointer>> given = null;
+            int cursor = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (sections.containsKey(line)) { // start of a section
+                    given = sortByString(sections.remove(line));
+                    cursor = 0;
+                    continue;
+                }
+                if (given == null) {
+                    continue;
+                }
+                int sep = line.indexOf(SEP);
+                if (sep < 0) { // end of a section
+                    addGivenOnly(mismatches, given.subList(cursor, given.size()));
+                    given = null;
+                    continue;
+                }
+                String pointerStr = line.substring(0, sep);
+                int expectedStart = sep + SEP.length();
+                while (cursor < given.size() &&
+                        given.get(cursor).getKey().compareTo(pointerStr) < 0) {
+                    addGivenOnly(mismatches, List.of(given.get(cursor++)));
+                }
+                if (cursor < given.size() &&
+                        given.get(cursor).getKey().equals(pointerStr)) {
+                    PointsToSet pts = given.get(cursor++).getValue().getPointsToSet();
+                    if (hasher.hash(pts) != PointsToSetHasher.hash(line, expectedStart)) {
+                        mismatches.add(String.format("%s, expected: %s, given: %s",
+                                pointerStr, line.substring(expectedStart), toString(pts)));
+                    }
+                } else {
+                    mismatches.add(String.format("%s, expected: %s, given: null",
+                            pointerStr, line.substring(expectedStart)));
+                }
+            }
+            if (given != null) {
+                addGivenOnly(mismatches, given.subList(cursor, given.size()));
+            }
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read points-to set from " + input, e);
+        }
+        // the sections absent in the input file
+        sections.values().forEach(pointers ->
+                addGivenOnly(mismatches, sortByString(pointers)));
+        if (!mismatches.isEmpty()) {
+            throw new AnalysisException("Mismatches of points-to set\n" +
+                    String.join("\n", mismatches));
+        }
+    }
+
+    private static List<Map.Entry<String, Pointer>> sortByString(
+            Collection<? extends Pointer> pointers) {
+        return pointers.stream()
+                .map(p -> Map.entry(p.toString(), (Pointer) p))
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+    }
+
+    private static void addGivenOnly(List<String> mismatches,
+                                     List<Map.Entry<String, Pointer>> pointers) {
+        pointers.forEach(e -> mismatches.add(String.format(
+                "%s, expected: null, given: %s",
+                e.getKey(), toString(e.getValue().getPointsToSet()))));
+    }
+
+    /**
+     * Opens a buffered input stream of given file. The input is
+     * decompressed by gzip if the file name ends with {@link #GZIP_SUFFIX}.
+     */
+    private static InputStream openInput(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(GZIP_SUFFIX)) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedInputStream(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Computes 64-bit polynomial hashes of the strings of points-to sets,
+     * i.e., the strings produced by {@link #toString(PointsToSet)},
+     * without building the strings.
+     * The hash of a concatenation is computed from the hashes of its parts:
+     * hash(a + b) = hash(a) * BASE^length(b) + hash(b), thus each object is
+     * converted to string and hashed only once.
+     */
+    private static class PointsToSetHasher {
+
+        private static final long BASE = 0x100000001b3L;
+
+        private static final Part OPEN = Part.of("[");
+
+        private static final Part DELIMITER = Part.of(", ");
+
+        private static final Part CLOSE = Part.of("]");
+
+        private final Map<CSObj, Part> objParts = new HashMap<>();
+
+        long hash(PointsToSet pts) {
+            // the objects are sorted by their strings, as in toString(pts)
+            List<Part> parts = pts.objects()
+                    .map(obj -> objParts.computeIfAbsent(obj,
+                            o -> Part.of(o.toString())))
+                    .sorted(Comparator.comparing(Part::string))
+                    .toList();
+            long hash = OPEN.hash();
+            for (int i = 0; i < parts.size(); ++i) {
+                if (i > 0) {
+                    hash = DELIMITER.appendTo(hash);
+                }
+                hash = parts.get(i).appendTo(hash);
+            }
+            return CLOSE.appendTo(hash);
+        }
+
+        /**
+         * @return the hash of the suffix of given string which starts at start.
+         */
+        static long hash(String s, int start) {
+            long hash = 0;
+            for (int i = start; i < s.length(); ++i) {
+                hash = hash * BASE + s.charAt(i);
+            }
+            return hash;
+        }
+
+        /**
+         * A part of the string of points-to sets, with its hash and
+         * BASE^length of it.
+         */
+        private record Part(String string, long hash, long pow) {
+
+            private static Part of(String s) {
+                long pow = 1;
+                for (int i = 0; i < s.length(); ++i) {
+                    pow *= BASE;
+                }
+                return new Part(s, PointsToSetHasher.hash(s, 0), pow);
+            }
+
+            private long appendTo(long prefixHash) {
+                return prefixHash * pow + hash;
+            }
+        }
+    }
+
     private static Map<String, String> readPointsToSets(String input) {
         try {
             Map<String, String> result = new LinkedHashMap<>();
@@ -248,14 +483,16 @@ public class ResultProcessor {
                 .stream()
                 .map(TaintFlow::toString)
                 .collect(Collectors.toList());
+        Set<String> inputSet = new HashSet<>(inputs);
+        Set<String> taintFlowSet = new HashSet<>(taintFlows);
         List<String> mismatches = new ArrayList<>();
         taintFlows.forEach(taintFlow -> {
-            if (!inputs.contains(taintFlow)) {
+            if (!inputSet.contains(taintFlow)) {
                 mismatches.add(taintFlow + " should NOT be included");
             }
         });
         inputs.forEach(expected -> {
-            if (!taintFlows.contains(expected)) {
+            if (!taintFlowSet.contains(expected)) {
                 mismatches.add(expected + " should be included");
             }
         });
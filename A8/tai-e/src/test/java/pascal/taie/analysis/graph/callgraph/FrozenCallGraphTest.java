@@ -0,0 +1,135 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FrozenCallGraphTest {
+
+    /**
+     * Builds and dumps the call graph of TaintInList with freeze:true.
+     */
+    private static void buildFrozenCallGraph(File dot) {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/taint", "-m", "TaintInList",
+                "-a", "cspta=cs:2-obj;implicit-entries:false;only-app:true;" +
+                "taint-config:src/test/resources/pta/taint/taint-config.yml",
+                "-a", "cg=algorithm:cspta;freeze:true;action:dump;file:" + dot.getPath()
+        });
+    }
+
+    @Test
+    public void testFreezeCallGraph() throws IOException {
+        File dot = File.createTempFile("TaintInList", ".dot");
+        dot.deleteOnExit();
+        buildFrozenCallGraph(dot);
+        assertTrue(dot.length() > 0);
+        CallGraph<Invoke, JMethod> frozen = World.get().getResult(CallGraphBuilder.ID);
+        assertTrue(frozen instanceof FrozenCallGraph);
+        PointerAnalysisResult pta = World.get().getResult(CSPTA.ID);
+        assertSameCallGraph(pta.getCallGraph(), frozen);
+    }
+
+    @Test
+    public void testFreezeCSCallGraph() throws IOException {
+        File dot = File.createTempFile("TaintInList", ".dot");
+        dot.deleteOnExit();
+        buildFrozenCallGraph(dot);
+        PointerAnalysisResult pta = World.get().getResult(CSPTA.ID);
+        CallGraph<CSCallSite, CSMethod> csCallGraph = pta.getCSCallGraph();
+        assertSameCallGraph(csCallGraph,
+                ((AbstractCallGraph<CSCallSite, CSMethod>) csCallGraph).freeze());
+    }
+
+    /**
+     * Checks that all queries on the frozen call graph give
+     * the same results as on the call graph it is frozen from.
+     */
+    private static <CallSite, Method> void assertSameCallGraph(
+            CallGraph<CallSite, Method> expected, CallGraph<CallSite, Method> frozen) {
+        assertEquals(expected.getNumberOfEdges(), frozen.getNumberOfEdges());
+        assertEquals(expected.getNumberOfMethods(), frozen.getNumberOfMethods());
+        assertSameSet(toSet(expected.entryMethods()), toSet(frozen.entryMethods()));
+        assertSameSet(toSet(expected.edges()), toSet(frozen.edges()));
+        assertSameSet(expected.getNodes(), frozen.getNodes());
+        for (Method method : expected.getNodes()) {
+            assertTrue(frozen.contains(method));
+            assertSameSet(expected.getCallersOf(method), frozen.getCallersOf(method));
+            assertSameSet(expected.getSuccsOf(method), frozen.getSuccsOf(method));
+            assertSameSet(expected.getPredsOf(method), frozen.getPredsOf(method));
+            assertSameSet(expected.getInEdgesOf(method), frozen.getInEdgesOf(method));
+            assertSameSet(expected.getOutEdgesOf(method), frozen.getOutEdgesOf(method));
+            assertSameSet(toSet(expected.edgesInTo(method)),
+                    toSet(frozen.edgesInTo(method)));
+            assertSameSet(expected.getCallSitesIn(method), frozen.getCallSitesIn(method));
+            for (CallSite callSite : expected.getCallSitesIn(method)) {
+                assertEquals(method, frozen.getContainerOf(callSite));
+                assertSameSet(expected.getCalleesOf(callSite),
+                        frozen.getCalleesOf(callSite));
+                assertSameSet(toSet(expected.edgesOutOf(callSite)),
+                        toSet(frozen.edgesOutOf(callSite)));
+            }
+            for (Method succ : expected.getSuccsOf(method)) {
+                assertTrue(frozen.hasEdge(method, succ));
+            }
+        }
+        // queries on absent elements
+        Object absent = new Object();
+        assertFalse(frozen.getNodes().contains(absent));
+        for (Method method : expected.getNodes()) {
+            assertFalse(frozen.getSuccsOf(method).contains(absent));
+            assertFalse(frozen.getCallSitesIn(method).contains(absent));
+        }
+    }
+
+    /**
+     * Checks the equality in both directions, so that both
+     * {@code contains} of the frozen sets and their iteration are checked.
+     */
+    private static void assertSameSet(Set<?> expected, Set<?> actual) {
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+    }
+
+    private static <T> Set<T> toSet(Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+}
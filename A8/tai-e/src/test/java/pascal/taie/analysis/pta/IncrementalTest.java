@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class IncrementalTest {
+
+    /**
+     * Directory of the versions of the test programs. Incremental v1 and v2
+     * differ in the body of method pick(), and in Override v2, Square
+     * overrides describe() which it inherits in v1.
+     */
+    private static final String DIR = "src/test/resources/pta/incremental/";
+
+    @Test
+    public void testIncrementalCall() throws IOException {
+        testIncremental("1-call");
+    }
+
+    @Test
+    public void testIncrementalObj() throws IOException {
+        testIncremental("2-obj");
+    }
+
+    @Test
+    public void testAddedOverride() throws IOException {
+        testIncremental("override-v1", "override-v2", "Override", "1-call");
+    }
+
+    private static void testIncremental(String cs) throws IOException {
+        testIncremental("v1", "v2", "Incremental", cs);
+    }
+
+    /**
+     * Analyzes v1 with a checkpoint, then analyzes v2 incrementally from
+     * the checkpoint, and compares the result with analyzing v2 from scratch.
+     */
+    private static void testIncremental(String v1Dir, String v2Dir,
+                                        String main, String cs) throws IOException {
+        File checkpoint = File.createTempFile(main, ".ckpt");
+        checkpoint.deleteOnExit();
+        List<String> v1 = runCSPTA(v1Dir, main, cs, "checkpoint:" + checkpoint.getPath());
+        List<String> incremental = runCSPTA(v2Dir, main, cs, "restore:" + checkpoint.getPath());
+        List<String> full = runCSPTA(v2Dir, main, cs, null);
+        assertFalse(v1.equals(full));
+        assertEquals(full, incremental);
+    }
+
+    private static List<String> runCSPTA(String version, String main,
+                                         String cs, String opt) {
+        String ptaArgs = "cs:" + cs + ";implicit-entries:false;only-app:true";
+        if (opt != null) {
+            ptaArgs += ";" + opt;
+        }
+        Main.main(new String[]{
+                "-pp", "-cp", DIR + version, "-m", main,
+                "-a", "cspta=" + ptaArgs
+        });
+        return snapshot(World.get().getResult(CSPTA.ID));
+    }
+
+    /**
+     * @return the sorted strings of the reachable methods, call edges and
+     * non-empty points-to sets in given result. The pointers retracted by
+     * the incremental analysis have empty points-to sets, so the empty
+     * ones are skipped.
+     */
+    private static List<String> snapshot(PointerAnalysisResult result) {
+        List<String> facts = new ArrayList<>();
+        result.getCSCallGraph().reachableMethods()
+                .forEach(csMethod -> facts.add("reachable " + csMethod));
+        result.getCSCallGraph().edges()
+                .forEach(edge -> facts.add("edge " + edge));
+        Stream.<Collection<? extends Pointer>>of(
+                        result.getCSVars(), result.getStaticFields(),
+                        result.getInstanceFields(), result.getArrayIndexes())
+                .flatMap(Collection::stream)
+                .forEach(pointer -> {
+                    PointsToSet pts = pointer.getPointsToSet();
+                    if (pts != null && !pts.isEmpty()) {
+                        facts.add(pointer + " -> " + pts.objects()
+                                .map(Object::toString)
+                                .sorted()
+                                .toList());
+                    }
+                });
+        Collections.sort(facts);
+        return facts;
+    }
+}
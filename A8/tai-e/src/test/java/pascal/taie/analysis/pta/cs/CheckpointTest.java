@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.util.AnalysisException;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CheckpointTest {
+
+    private static final String DIR = "taint";
+
+    private static final String TAINT_CONFIG =
+            "taint-config:src/test/resources/pta/taint/taint-config.yml";
+
+    @Test
+    public void testCheckpointRestore() throws IOException {
+        File checkpoint = File.createTempFile("TaintInList", ".ckpt");
+        checkpoint.deleteOnExit();
+        // checkpoint on every work-list entry and at the end,
+        // then resume from the final one
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;checkpoint:" + checkpoint.getPath() +
+                        ";checkpoint-interval:0;" + TAINT_CONFIG);
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;restore:" + checkpoint.getPath() + ";" + TAINT_CONFIG);
+    }
+
+    @Test
+    public void testRestorePartialCheckpoint() throws IOException {
+        File checkpoint = File.createTempFile("TaintInList", ".ckpt");
+        checkpoint.deleteOnExit();
+        // the periodic checkpoint is not due, so a single checkpoint is
+        // written when the solving is terminated after 10 work-list
+        // entries, as the shutdown hook does when the JVM is terminated
+        int[] entries = {0};
+        Solver.entryHook = solver -> {
+            if (++entries[0] > 10) {
+                solver.writeCheckpoint();
+                throw new AnalysisException("Solving is terminated");
+            }
+        };
+        try {
+            Tests.testCSPTA(DIR, "TaintInList",
+                    "cs:2-obj;checkpoint:" + checkpoint.getPath() + ";" + TAINT_CONFIG);
+            fail("Solving is not terminated");
+        } catch (AnalysisException e) {
+            assertTrue(checkpoint.length() > 0);
+        } finally {
+            Solver.entryHook = null;
+        }
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;restore:" + checkpoint.getPath() + ";" + TAINT_CONFIG);
+    }
+}
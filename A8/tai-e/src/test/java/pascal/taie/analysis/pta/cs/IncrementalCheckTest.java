@@ -0,0 +1,113 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalCheckTest {
+
+    private static final String DIR = "taint";
+
+    private static final String TAINT_CONFIG =
+            "taint-config:src/test/resources/pta/taint/taint-config.yml";
+
+    @Test
+    public void testInterTaintTransfer() {
+        testIncrementalCheck("InterTaintTransfer", "cs:2-call");
+    }
+
+    @Test
+    public void testTaintInList() {
+        testIncrementalCheck("TaintInList", "cs:2-obj");
+    }
+
+    private static void testIncrementalCheck(String main, String cs) {
+        Solver.finishHook = IncrementalCheckTest::checkIncremental;
+        try {
+            Tests.testCSPTA(DIR, main, cs + ";" + TAINT_CONFIG);
+        } finally {
+            Solver.finishHook = null;
+        }
+    }
+
+    /**
+     * Re-analyzing each method of the main class as a changed method
+     * must reproduce the reachable methods and the points-to sets of
+     * solving from scratch.
+     */
+    private static void checkIncremental(Solver solver) {
+        Set<CSMethod> expectedMethods = getReachableMethods(solver);
+        Map<Pointer, Set<CSObj>> expected = snapshot(solver);
+        JMethod main = World.get().getMainMethod();
+        for (JMethod method : main.getDeclaringClass().getDeclaredMethods()) {
+            solver.resolve(Set.of(method));
+            String message = "Incremental re-analysis of " + method;
+            assertEquals(message, expectedMethods, getReachableMethods(solver));
+            assertEquals(message, expected, snapshot(solver));
+        }
+    }
+
+    private static Set<CSMethod> getReachableMethods(Solver solver) {
+        return solver.getResult().getCSCallGraph()
+                .reachableMethods()
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the non-empty points-to sets of all pointers. The retracted
+     * pointers which are not reached again have empty points-to sets,
+     * so the empty ones are skipped.
+     */
+    private static Map<Pointer, Set<CSObj>> snapshot(Solver solver) {
+        PointerAnalysisResult result = solver.getResult();
+        Map<Pointer, Set<CSObj>> snapshot = new HashMap<>();
+        Stream.<Collection<? extends Pointer>>of(
+                        result.getCSVars(), result.getStaticFields(),
+                        result.getInstanceFields(), result.getArrayIndexes())
+                .flatMap(Collection::stream)
+                .forEach(pointer -> {
+                    PointsToSet pts = pointer.getPointsToSet();
+                    if (pts != null && !pts.isEmpty()) {
+                        snapshot.put(pointer, Set.copyOf(pts.getObjects()));
+                    }
+                });
+        return snapshot;
+    }
+}
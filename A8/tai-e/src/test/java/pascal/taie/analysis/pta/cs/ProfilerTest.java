@@ -0,0 +1,73 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProfilerTest {
+
+    @Test
+    public void testProfile() throws IOException {
+        File profile = File.createTempFile("TaintInList", "");
+        profile.deleteOnExit();
+        Tests.testCSPTA("taint", "TaintInList",
+                "cs:2-obj;profile:" + profile.getPath() + ";profile-top:5;" +
+                        "taint-config:src/test/resources/pta/taint/taint-config.yml");
+        File report = new File(profile.getPath() + ".txt");
+        File stacks = new File(profile.getPath() + ".collapsed");
+        report.deleteOnExit();
+        stacks.deleteOnExit();
+        assertTrue(stacks.length() > 0);
+        // the report consists of sections of methods, variables and objects,
+        // each has a title, a header and at most profile-top rows
+        Map<String, Long> propagated = new HashMap<>();
+        int sections = 0;
+        int rows = 0;
+        for (String line : Files.readAllLines(report.toPath())) {
+            if (line.startsWith("Top ")) {
+                ++sections;
+                rows = -1; // the header follows the title
+            } else if (!line.isEmpty() && rows++ >= 0) {
+                assertTrue(line, rows <= 5);
+                // propagated, pfg-edges, call-edges, contexts and entity
+                String[] columns = line.trim().split("\\s+", 5);
+                propagated.put(columns[4], Long.parseLong(columns[0]));
+            }
+        }
+        assertEquals(3, sections);
+        Long mainPropagated = propagated.get("<TaintInList: void main(java.lang.String[])>");
+        assertNotNull(mainPropagated);
+        assertTrue(mainPropagated > 0);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Test;
+import pascal.taie.Main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class BinaryResultTest {
+
+    private static final String SEP = " -> ";
+
+    private static void dump(String main, String action, File file) {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/taint", "-m", main,
+                "-a", "cspta=cs:2-obj;implicit-entries:false;only-app:true;" +
+                "action:" + action + ";file:" + file.getPath()
+        });
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File text = File.createTempFile("TaintInList", ".txt");
+        File binary = File.createTempFile("TaintInList", ".bin");
+        text.deleteOnExit();
+        binary.deleteOnExit();
+        dump("TaintInList", "dump", text);
+        dump("TaintInList", "dump-binary", binary);
+        // pointer -> points-to set in the text dump
+        Map<String, String> expected = new TreeMap<>();
+        for (String line : Files.readAllLines(text.toPath())) {
+            int sep = line.indexOf(SEP);
+            if (sep >= 0) {
+                expected.put(line.substring(0, sep),
+                        line.substring(sep + SEP.length()));
+            }
+        }
+        BinaryResultReader reader = BinaryResultReader.open(binary.toPath());
+        assertEquals(expected.size(), reader.getNumberOfPointers());
+        assertEquals(List.copyOf(expected.keySet()), reader.pointers().toList());
+        expected.forEach((pointer, pts) -> {
+            List<String> objects = reader.getPointsToSet(pointer);
+            assertNotNull(pointer, objects);
+            // the text dump sorts the objects by their strings
+            assertEquals(pointer, pts,
+                    "[" + String.join(", ", objects.stream().sorted().toList()) + "]");
+        });
+        assertNull(reader.getPointsToSet("<absent pointer>"));
+        assertNull(reader.getPointsToSet(""));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.util.AnalysisException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResultProcessorTest {
+
+    private static final String SEP = " -> ";
+
+    private static void runCSPTA(String main, String action, File file, String... opts) {
+        StringBuilder ptaArgs = new StringBuilder(
+                "cs:2-obj;implicit-entries:false;only-app:true;" +
+                "action:" + action + ";file:" + file.getPath());
+        for (String opt : opts) {
+            ptaArgs.append(';').append(opt);
+        }
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/taint", "-m", main,
+                "-a", "cspta=" + ptaArgs
+        });
+    }
+
+    @Test
+    public void testFastCompare() throws IOException {
+        File expected = File.createTempFile("TaintInList", ".txt");
+        expected.deleteOnExit();
+        runCSPTA("TaintInList", "dump", expected);
+        runCSPTA("TaintInList", "compare", expected, "fast-compare:true");
+        // the results compared in fast mode must also pass the normal compare
+        runCSPTA("TaintInList", "compare", expected);
+    }
+
+    @Test
+    public void testFastCompareGzip() throws IOException {
+        File expected = File.createTempFile("TaintInList", ".txt.gz");
+        expected.deleteOnExit();
+        runCSPTA("TaintInList", "dump", expected);
+        runCSPTA("TaintInList", "compare", expected, "fast-compare:true");
+    }
+
+    @Test
+    public void testFastCompareMismatch() throws IOException {
+        File expected = File.createTempFile("TaintInList", ".txt");
+        expected.deleteOnExit();
+        runCSPTA("TaintInList", "dump", expected);
+        // empty the first non-empty points-to set, and add an absent pointer,
+        // which is placed first as '<' precedes '[' of the context
+        List<String> lines = new ArrayList<>(Files.readAllLines(expected.toPath()));
+        String changed = null;
+        String given = null;
+        for (int i = 0; i < lines.size(); ++i) {
+            String line = lines.get(i);
+            int sep = line.indexOf(SEP);
+            if (sep >= 0 && !line.endsWith(SEP + "[]")) {
+                changed = line.substring(0, sep);
+                given = line.substring(sep + SEP.length());
+                lines.set(i, changed + SEP + "[]");
+                break;
+            }
+        }
+        assertNotNull(changed);
+        lines.add(1, "<absent>" + SEP + "[]");
+        Files.write(expected.toPath(), lines);
+        try {
+            runCSPTA("TaintInList", "compare", expected, "fast-compare:true");
+            fail("Mismatches are not detected");
+        } catch (AnalysisException e) {
+            String message = e.getMessage();
+            assertTrue(message, message.startsWith("Mismatches of points-to set\n"));
+            assertTrue(message, message.contains(
+                    changed + ", expected: [], given: " + given));
+            assertTrue(message, message.contains(
+                    "<absent>, expected: [], given: null"));
+            assertEquals(message, 3, message.split("\n").length);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+class Override {
+
+    public static void main(String[] args) {
+        Shape s = new Square();
+        Object o = s.describe();
+        Shape t = new Shape();
+        Object p = t.describe();
+    }
+}
+
+class Shape {
+
+    Object describe() {
+        return new Object();
+    }
+}
+
+class Square extends Shape {
+
+    Object describe() {
+        return this;
+    }
+}
@@ -0,0 +1,40 @@
+class Incremental {
+
+    public static void main(String[] args) {
+        Item a = new Item();
+        Item b = new Box();
+        Item c = pick(a, b);
+        Object o = c.get();
+        Box box = new Box();
+        box.item = c;
+        Item d = box.item;
+        Object p = d.get();
+    }
+
+    static Item pick(Item x, Item y) {
+        Item z = new Box();
+        z.item = x;
+        y.item = z;
+        return id(y);
+    }
+
+    static Item id(Item i) {
+        return i;
+    }
+}
+
+class Item {
+
+    Item item;
+
+    Object get() {
+        return new Object();
+    }
+}
+
+class Box extends Item {
+
+    Object get() {
+        return item;
+    }
+}